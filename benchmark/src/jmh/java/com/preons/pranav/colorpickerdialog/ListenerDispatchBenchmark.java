@@ -0,0 +1,69 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatching a selection change to the listeners from a {@link ListenerArray}, against the
+ * list of listeners filtered by type at every dispatch it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerDispatchBenchmark {
+
+    interface Delta {
+        void onSelectionChanged(int index, int color, boolean selected);
+    }
+
+    interface Other {
+        void onOther(int color);
+    }
+
+    @Param({"1", "4", "16"})
+    public int listeners;
+
+    private final ListenerArray<Delta> array = new ListenerArray<>(new Delta[0]);
+    private final ArrayList<Object> list = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setup(Blackhole bh) {
+        for (int i = 0; i < listeners; i++) {
+            Delta d = (index, color, selected) -> bh.consume(color);
+            Other o = bh::consume;
+            array.add(d);
+            list.add(d);
+            list.add(o);
+        }
+    }
+
+    @Benchmark
+    public void listenerArray() {
+        int k = next++;
+        for (Delta listener : array.array()) listener.onSelectionChanged(k, k, true);
+    }
+
+    @Benchmark
+    public void filteredList() {
+        int k = next++;
+        for (Object listener : list)
+            if (listener instanceof Delta) ((Delta) listener).onSelectionChanged(k, k, true);
+    }
+}
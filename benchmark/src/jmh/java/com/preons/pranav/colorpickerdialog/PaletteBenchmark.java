@@ -0,0 +1,112 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Palette ingestion as done by {@link ColorDialogBuilder#setColors(int[])},
+ * {@link ColorDialogBuilder#setColors(Integer...)} and {@link ColorDialogBuilder#setColors(String...)},
+ * then the {@link ColorDialogBuilder#updateColor(int, int)} and {@link ColorDialogBuilder#refresh()}
+ * bookkeeping.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaletteBenchmark {
+
+    @Param({"16", "256", "4096", "100000"})
+    public int size;
+
+    private int[] ints;
+    private Integer[] boxed;
+    private String[] hex;
+    private int[] dst;
+    private int[] updates;
+    private final Palette palette = new Palette();
+    private final HexColors.Cache cache = new HexColors.Cache(256);
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        ints = new int[size];
+        boxed = new Integer[size];
+        hex = new String[size];
+        for (int i = 0; i < size; i++) {
+            // palettes repeat colors, hex strings come from a small set
+            int color = 0xff000000 | random.nextInt(1 << 24);
+            ints[i] = color;
+            boxed[i] = color;
+            hex[i] = String.format("#%08x", 0xff000000 | random.nextInt(128) * 0x020305);
+        }
+        dst = new int[size];
+        // 1% of the colors, at least one
+        updates = new int[Math.max(1, size / 100)];
+        for (int i = 0; i < updates.length; i++) updates[i] = random.nextInt(size);
+        palette.setAll(ints, 0, size);
+        palette.clearDirty();
+    }
+
+    @Benchmark
+    public Palette setColorsInt() {
+        palette.setAll(ints, 0, size);
+        return palette;
+    }
+
+    @Benchmark
+    public Palette setColorsBoxed() {
+        palette.clear();
+        palette.ensureCapacity(boxed.length);
+        for (Integer color : boxed)
+            if (color == null) palette.addNull();
+            else palette.add(color);
+        return palette;
+    }
+
+    @Benchmark
+    public Palette setColorsHex() {
+        palette.clear();
+        palette.ensureCapacity(hex.length);
+        for (String s : hex) palette.add(HexColors.parse(s));
+        return palette;
+    }
+
+    @Benchmark
+    public Palette setColorsHexCached() {
+        palette.clear();
+        palette.ensureCapacity(hex.length);
+        for (String s : hex) palette.add(cache.parse(s));
+        return palette;
+    }
+
+    @Benchmark
+    public int parseAllHex() {
+        return HexColors.parseAll(hex, dst, 0);
+    }
+
+    /**
+     * Update 1% of the colors then walk the dirty indices as refresh does.
+     */
+    @Benchmark
+    public void updateAndRefresh(Blackhole bh) {
+        for (int k : updates) palette.set(k, palette.get(k) ^ 0x010101);
+        if (!palette.isDirty()) return;
+        for (int i = palette.nextDirty(0); i != -1; i = palette.nextDirty(i + 1)) bh.consume(palette.get(i));
+        palette.clearDirty();
+    }
+}
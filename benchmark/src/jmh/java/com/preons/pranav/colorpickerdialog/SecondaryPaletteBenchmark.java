@@ -0,0 +1,70 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ColorDialogBuilder.Mode#SECONDARY_SELECTION}: opening the row of a primary color and
+ * going back to the primary colors, from listed rows or from a {@link ShadeGenerator}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecondaryPaletteBenchmark {
+
+    private static final int ROW = 10;
+
+    /**
+     * Number of secondary colors, in rows of 10.
+     */
+    @Param({"16", "256", "4096", "100000"})
+    public int size;
+
+    private final SecondaryPalette rows = new SecondaryPalette();
+    private final Palette colors = new Palette();
+    private final Palette primaries = new Palette();
+    private ShadeGenerator shades;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        int n = (size + ROW - 1) / ROW;
+        int[] values = new int[n * ROW], offsets = new int[n + 1];
+        for (int i = 0; i < values.length; i++) values[i] = 0xff000000 | random.nextInt(1 << 24);
+        for (int r = 0; r <= n; r++) offsets[r] = r * ROW;
+        rows.setAll(values, offsets, n);
+        rows.copyPrimaries(colors);
+        primaries.setAll(colors);
+        shades = new ShadeGenerator(3, 3, 3);
+    }
+
+    @Benchmark
+    public Palette openRowAndBack() {
+        rows.copyRow(next++ % rows.rows(), colors);
+        colors.setAll(primaries);
+        return colors;
+    }
+
+    @Benchmark
+    public Palette openGeneratedRowAndBack() {
+        shades.row(primaries.get(next++ % primaries.size()), colors);
+        colors.setAll(primaries);
+        return colors;
+    }
+}
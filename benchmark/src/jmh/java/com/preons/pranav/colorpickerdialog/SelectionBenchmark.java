@@ -0,0 +1,65 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ColorDialogBuilder.Mode#MULTI_SELECTION}: toggling swatches, then committing the
+ * selection as the DONE button does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionBenchmark {
+
+    @Param({"16", "256", "4096", "100000"})
+    public int size;
+
+    private final Selection selection = new Selection();
+    private final Palette palette = new Palette();
+    private int[] taps;
+    private int next;
+    private int[] indices, colors;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        int[] c = new int[size];
+        for (int i = 0; i < size; i++) c[i] = 0xff000000 | random.nextInt(1 << 24);
+        palette.setAll(c, 0, size);
+        selection.resize(size);
+        taps = new int[1024];
+        for (int i = 0; i < taps.length; i++) taps[i] = random.nextInt(size);
+        // a quarter of the colors selected
+        for (int i = 0; i < size / 4; i++) selection.set(random.nextInt(size), true);
+        indices = new int[size];
+        colors = new int[size];
+    }
+
+    @Benchmark
+    public boolean toggle() {
+        return selection.toggle(taps[next++ & 1023]);
+    }
+
+    @Benchmark
+    public int commit() {
+        int n = selection.getColors(palette, colors);
+        selection.getIndices(indices);
+        return n;
+    }
+}
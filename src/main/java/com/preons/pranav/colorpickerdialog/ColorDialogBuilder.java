@@ -1,26 +1,32 @@
 package com.preons.pranav.colorpickerdialog;
 
-import android.animation.FloatEvaluator;
-import android.animation.ObjectAnimator;
-import android.animation.TimeInterpolator;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.graphics.Color;
 import android.graphics.PorterDuff;
 import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
-import android.view.animation.OvershootInterpolator;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.AbsListView;
+import android.widget.BaseAdapter;
 import android.widget.Button;
 import android.widget.GridLayout;
+import android.widget.GridView;
 import android.widget.ImageButton;
+import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.EmptyStackException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import androidx.annotation.ColorInt;
 import androidx.annotation.IntDef;
@@ -29,9 +35,6 @@ import androidx.annotation.Nullable;
 import androidx.annotation.Size;
 import androidx.annotation.StringRes;
 import androidx.appcompat.app.AlertDialog;
-import androidx.appcompat.view.ContextThemeWrapper;
-import pranav.utilities.Log;
-import pranav.utilities.Utilities;
 
 /**
  * {@link ColorDialogBuilder} is use to create a color picker dialog
@@ -64,11 +67,48 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
      */
     public static final int SQUARE = 0x7c4;
 
-    private static final TimeInterpolator interpolator = new OvershootInterpolator();
+    /**
+     * Constant to render every color as its own view in a {@link GridLayout} (default).
+     */
+    public static final int GRID = 0x3b1;
+
+    /**
+     * Constant to render the colors in a virtualized {@link GridView}, only the swatches
+     * visible on screen are created and they are recycled while scrolling.
+     */
+    public static final int VIRTUAL = 0x3b2;
+
+    /**
+     * Constant to draw the whole palette in a single {@link SwatchGridView}.
+     */
+    public static final int CANVAS = 0x3b3;
+
+    /**
+     * Constant to call {@link Listener.Tap} and {@link Listener.SecondarySelection} as soon as a
+     * color is tapped, the dialog is dismissed once the tap animation ends.
+     */
+    public static final int IMMEDIATE = 0x4d1;
+
+    /**
+     * Constant to call {@link Listener.Tap} and {@link Listener.SecondarySelection} when the tap
+     * animation ends, or is cut short by another animation of the swatch.
+     */
+    public static final int ON_ANIMATION_END = 0x4d2;
+
+    /**
+     * Constant to call {@link Listener.Tap} and {@link Listener.SecondarySelection} after
+     * {@link ColorDialogBuilder#setDispatchDelay(long) a delay} (default).
+     */
+    public static final int DEFERRED = 0x4d3;
+
     /**
      * use this duration (225 milliseconds)if you want to animate externally
      */
     private static final long A = 0xe1;
+    /**
+     * Main thread scheduler shared by every dialog.
+     */
+    private static final Handler main = new Handler(Looper.getMainLooper());
 
     /**
      * base layout to which the view is added
@@ -76,18 +116,43 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
     private final View rootLayout;
     private final TextView t;
     private Context c;
-    private Log log = new Log();
+    private final DialogLog log = new DialogLog();
 
     /**
      * holds the given color
      */
-    private ArrayList<Integer> colors = new ArrayList<>();
+    private Palette colors = new Palette();
+    /**
+     * {@link Palette#version()} of the colors the swatches show, 0 before they are built.
+     */
+    private long drawnVersion;
     /**
      * check {@link ColorDialogBuilder#setSecondaryColors(Integer[][])}
      */
-    private ArrayList<ArrayList<Integer>> secondaryColors = new ArrayList<>();
-    private ArrayList<Listener> listeners = new ArrayList<>();
-    private ArrayList<DialogListener> dialogListeners = new ArrayList<>();
+    private final SecondaryPalette secondaryColors = new SecondaryPalette();
+    /**
+     * Row of {@link ColorDialogBuilder#secondaryColors} prepared on touch-down.
+     *
+     * @see ColorDialogBuilder#setPrefetchOnTouch(boolean)
+     */
+    private final Palette staged = new Palette();
+    private int stagedRow = -1;
+    private boolean prefetchOnTouch;
+    /**
+     * Generates the secondary colors when none are given,
+     * see {@link ColorDialogBuilder#setShadeGenerator(ShadeGenerator)}.
+     */
+    @Nullable
+    private ShadeGenerator shades;
+    /**
+     * The primary colors while the generated secondary colors of one of them are shown.
+     */
+    private final Palette primaries = new Palette();
+    private final ListenerRegistry listeners = new ListenerRegistry(new LegacyMultiSelection());
+    /**
+     * Buffers of {@link Listener.SelectionCommit}, reused by every commit.
+     */
+    private int[] commitIndices = new int[0], commitColors = new int[0];
 
     /**
      * Holds number of column.
@@ -105,6 +170,14 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
      * @see ColorDialogBuilder#setType(int)
      */
     private int type = CIRCULAR;
+    /**
+     * Holds the current renderer of the colors
+     *
+     * @see ColorDialogBuilder#setRenderer(int)
+     */
+    private int renderer = GRID;
+    @Nullable
+    private SwatchAdapter adapter;
 
     /**
      * The number of color that are added to dialog view<br>
@@ -118,17 +191,81 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
     private int numColor;
 
     /**
-     * Flag for weather the the {@link ColorDialogBuilder#colors} is changed or not
+     * holds the indices of the selected colors when {@link ColorDialogBuilder#mode}
+     * is {@link ColorDialogBuilder.Mode#MULTI_SELECTION}.
      */
-    private boolean changed;
-
+    private final Selection s = new Selection();
     /**
-     * holds the selected color when {@link ColorDialogBuilder#mode}
-     * is {@link ColorDialogBuilder.Mode#MULTI_SELECTION}.
+     * The swatches currently in the {@link GridLayout}, they go back to
+     * {@link ColorDialogBuilder#pool} when the grid is rebuilt.
      */
-    private ArrayList<Integer> s = new ArrayList<>();
-    private ArrayList<View> vs = new ArrayList<>();
     private ArrayList<ImageButton> buttons = new ArrayList<>();
+    private final SwatchPool pool = new SwatchPool();
+    /**
+     * The swatch style last used, kept so the style stays in {@link SwatchStyles}.
+     */
+    @Nullable
+    private SwatchStyles.Style resolved;
+    private int resolvedStyle;
+    private GridLayout.Spec[] specs = new GridLayout.Spec[16];
+    @Nullable
+    private HexColors.Cache parseCache;
+    /**
+     * Set by {@link ColorDialogBuilder#prewarm(Executor, OnPrewarmListener)} from the executor thread.
+     */
+    @Nullable
+    private volatile PreparedGrid prepared;
+    @Nullable
+    private Timings timings;
+    /**
+     * Same as {@link ColorDialogBuilder#timings} when it is {@link Metrics}, else null.
+     */
+    @Nullable
+    private Metrics metrics;
+    /**
+     * @see ColorDialogBuilder#setReuseDialog(boolean)
+     */
+    private boolean reuse;
+    /**
+     * The columns, type, renderer and mode the current grid was built with.
+     */
+    private int builtColumns, builtType, builtRenderer;
+    private Mode builtMode;
+    /**
+     * Color whose nearest swatch is preselected, see {@link ColorDialogBuilder#setPreselectNearest(Integer)}.
+     */
+    @Nullable
+    private Integer preselect;
+    /**
+     * Swatch to pulse when the dialog is shown, or -1.
+     */
+    private int highlight = -1;
+    @Nullable
+    private PaletteIndex index;
+    @Nullable
+    private RecentColors recents;
+    /**
+     * The colors of the recents row and their index in the colors, the style its swatches were made with.
+     */
+    private int[] recentColors = new int[0], recentIndices = new int[0];
+    private int recentStyle;
+    /**
+     * @see ColorDialogBuilder#setDispatch(int)
+     */
+    private int dispatch = DEFERRED;
+    private long dispatchDelay = A + 25;
+    /**
+     * Number of {@link PendingTap}s not dispatched yet, the dialog is dismissed once they all are.
+     */
+    private int pendingTaps;
+    /**
+     * Dispatched {@link PendingTap}s kept for the next taps, linked by {@link PendingTap#next}.
+     */
+    @Nullable
+    private PendingTap freeTaps;
+    private final Runnable dismiss = () -> {
+        if (pendingTaps == 0) dismissTarget();
+    };
 
 
     /**
@@ -140,8 +277,14 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
     private D target;
     private boolean animateOnTap;
     private Integer lastColor;
-    private int lK;
+    private int lK = -1;
     private Integer mainSelected;
+    /**
+     * The swatch selected last when {@link ColorDialogBuilder#mode}
+     * is {@link ColorDialogBuilder.Mode#SINGLE_SELECTION}.
+     */
+    @Nullable
+    private View lastView;
     /**
      * {@link View#setOnClickListener(View.OnClickListener) onClick} for every color.<br>
      * It calls the interface {@link ColorDialogBuilder.Listener} which gives the current
@@ -150,51 +293,106 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
      */
 
     private View.OnClickListener l = new View.OnClickListener() {
-        View lastView;
+        @Override
+        public void onClick(View v) {
+            onSwatchClick(v, v.getId());
+        }
+    };
+
+    /**
+     * Same as {@link ColorDialogBuilder#l} for the {@link ColorDialogBuilder#CANVAS} renderer.
+     */
+    private SwatchGridView.OnSwatchClickListener gl = this::onSwatchClick;
 
+    /**
+     * {@link View#setOnClickListener(View.OnClickListener) onClick} of the recents row, a recent color
+     * acts as its swatch, or is set on the picker in {@link ColorDialogBuilder.Mode#CONTINUOUS}.
+     */
+    private View.OnClickListener rl = new View.OnClickListener() {
         @Override
         public void onClick(View v) {
-            int k = v.getId();
-            Integer color = colors.get(k);
-            if (color == null) {
-                log.w("Color selected have null value", new NullPointerException());
-                return;
+            int i = v.getId(), color = recentColors[i], k = recentIndices[i];
+            if (mode == Mode.CONTINUOUS) {
+                ColorPickerView picker = rootLayout.findViewById(R.id.picker);
+                picker.setColor(color);
+            } else if (k < colors.size() && !colors.isNull(k) && colors.get(k) == color) {
+                View swatch = swatch(k);
+                onSwatchClick(swatch != null ? swatch : v, k);
             }
-            for (Listener listener : listeners)
-                if (mode == Mode.MULTI_SELECTION && listener instanceof Listener.MultiSelection) {
-                    boolean b = s.indexOf(color) != -1;
-                    animate(v, false, !b);
-                    if (b) s.remove(color);
-                    else s.add(color);
-                    vs.add(v);
-                    log.d(mode + ": onClick: selected items:\n" + s.toString());
-                    ((Listener.MultiSelection) listener).onMultiSelect(s.toArray(new Integer[0]), color);
-                } else if (mode == Mode.SINGLE_SELECTION && listener instanceof Listener.SingleSelection) {
-                    if (lastView != null) {
-                        lastView.animate().scaleX(1).scaleY(1).setDuration(A).setInterpolator(interpolator).start();
-                        lastView = v;
-                    }
-                    v.animate().scaleX(1.2f).scaleY(1.2f)
-                            .setDuration(A).setInterpolator(interpolator).start();
-                    ColorDialogBuilder.this.lastColor = color;
-                    lK = k;
-                    log.d(mode + ": onClick: " + Integer.toHexString(color) + " Selected at index " + k);
-                } else if (mode == Mode.SECONDARY_SELECTION && listener instanceof Listener.SecondarySelection) {
-                    if (mainSelected == null) {
-                        create(colors = secondaryColors.get(k));
-                        mainSelected = color;
-                    } else tap(listener, v);
-
-                    log.d(mode + ": onClick: " + Integer.toHexString(color) + " Selected at index " + k);
-                } else if (mode == Mode.TAP && listener instanceof Listener.Tap) {
-                    tap(listener, v);
-                    log.d(mode + ": onClick: " + Integer.toHexString(color) + " Selected at index " + k);
-                }
-            if (listeners.isEmpty())
-                log.w("No Listener added, skipping onClick changes", new EmptyStackException());
         }
     };
 
+    /**
+     * Prepare the secondary colors of a primary color as soon as it is touched.
+     */
+    private View.OnTouchListener tl = new View.OnTouchListener() {
+        @Override
+        public boolean onTouch(View v, MotionEvent event) {
+            if (event.getActionMasked() == MotionEvent.ACTION_DOWN) prefetch(v.getId());
+            return false;
+        }
+    };
+
+    /**
+     * Same as {@link ColorDialogBuilder#tl} for the {@link ColorDialogBuilder#CANVAS} renderer.
+     */
+    private SwatchGridView.OnSwatchClickListener gtl = (view, index) -> prefetch(index);
+
+
+    /**
+     * Handle a click on the swatch at index k, v is the swatch itself or the
+     * {@link SwatchGridView} holding it.
+     */
+    private void onSwatchClick(View v, int k) {
+        if (k >= colors.size() || colors.isNull(k)) {
+            log.w("Color selected have null value", NullPointerException::new);
+            return;
+        }
+        int color = colors.get(k);
+        switch (mode) {
+            case MULTI_SELECTION:
+                fitSelection();
+                boolean selected = s.toggle(k);
+                animate(v, k, false, selected);
+                log.d("{}: onClick: selected items:\n{}", mode, s);
+                for (Listener.SelectionDelta listener : listeners.delta.array())
+                    listener.onSelectionChanged(k, color, selected);
+                break;
+            case SINGLE_SELECTION:
+                if (listeners.single.isEmpty()) break;
+                if (lastView != null) scale(lastView, lK, 1);
+                lastView = v;
+                scale(v, k, 1.2f);
+                lastColor = color;
+                lK = k;
+                log.d("{}: onClick: {x} Selected at index {}", mode, color, k);
+                break;
+            case SECONDARY_SELECTION:
+                if (listeners.secondary.isEmpty()) break;
+                if (mainSelected == null) {
+                    if (!secondaryColors.isEmpty() || shades == null) {
+                        if (stagedRow == k) colors.setAll(staged);
+                        else secondaryColors.copyRow(k, colors);
+                    } else {
+                        primaries.setAll(colors);
+                        if (stagedRow == k) colors.setAll(staged);
+                        else shades.row(color, colors);
+                    }
+                    stagedRow = -1;
+                    create(colors);
+                    mainSelected = color;
+                } else tap(v, k, color);
+                log.d("{}: onClick: {x} Selected at index {}", mode, color, k);
+                break;
+            case TAP:
+                if (listeners.tap.isEmpty()) break;
+                tap(v, k, color);
+                log.d("{}: onClick: {x} Selected at index {}", mode, color, k);
+                break;
+        }
+        if (listeners.isEmpty())
+            log.w("No Listener added, skipping onClick changes", EmptyStackException::new);
+    }
 
     @SuppressLint("InflateParams")
     public ColorDialogBuilder(Context context) {
@@ -227,39 +425,57 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
         return null;
     }
 
+    /**
+     * @return The current {@link ColorDialogBuilder.Mode}.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
     /**
      * This Method is use to change the functioning of {@link ColorDialogBuilder#l}
      * when a color is pressed.
      *
      * @param mode can be one of the this {@link ColorDialogBuilder.Mode#TAP},
      *             {@link ColorDialogBuilder.Mode#SINGLE_SELECTION},
-     *             {@link ColorDialogBuilder.Mode#MULTI_SELECTION}.
+     *             {@link ColorDialogBuilder.Mode#MULTI_SELECTION},
+     *             {@link ColorDialogBuilder.Mode#SECONDARY_SELECTION}, {@link ColorDialogBuilder.Mode#CONTINUOUS}.
      * @return currently created object of {@link ColorDialogBuilder}.
      */
     public ColorDialogBuilder<D> setMode(Mode mode) {
         this.mode = mode;
-        if (mode == Mode.SINGLE_SELECTION || mode == Mode.MULTI_SELECTION) {
+        if (mode == Mode.CONTINUOUS) {
+            super.setPositiveButton("DONE", (dialog, which) -> {
+                ColorPickerView picker = rootLayout.findViewById(R.id.picker);
+                int color = picker.getColor();
+                if (recents != null) recents.record(color);
+                for (Listener.SingleSelection listener : listeners.single.array())
+                    listener.onSingleSelect(color, -1);
+                dialog.dismiss();
+            });
+            super.setNegativeButton("Cancel", (dialog, which) -> dialog.dismiss());
+        } else if (mode == Mode.SINGLE_SELECTION || mode == Mode.MULTI_SELECTION) {
             super.setPositiveButton("DONE", (dialog, which) -> {
 
-                for (Listener listener : listeners) {
-                    if (listener instanceof Listener.SingleSelection)
-                        ((Listener.SingleSelection) listener).onSingleSelect(lastColor, lK);
-                    if (listener instanceof Listener.MultiSelection) {
-                        ((Listener.MultiSelection) listener).onMultiSelect(s.toArray(new Integer[0]), lK);
+                if (recents != null && lastColor != null) recents.record(lastColor);
+                fitSelection();
+                if (metrics != null && mode == Mode.MULTI_SELECTION)
+                    metrics.onCount(Metrics.SELECTION_SIZE, s.count());
+                for (Listener.SingleSelection listener : listeners.single.array())
+                    listener.onSingleSelect(lastColor, lK);
+                Listener.SelectionCommit[] commit = listeners.commit.array();
+                if (commit.length != 0) {
+                    if (commitColors.length < s.count()) {
+                        commitIndices = new int[s.count()];
+                        commitColors = new int[s.count()];
                     }
+                    int n = s.getColors(colors, commitColors);
+                    s.getIndices(commitIndices);
+                    for (Listener.SelectionCommit listener : commit)
+                        listener.onSelectionCommit(commitIndices, commitColors, n);
                 }
-                for (View v : vs) {
-                    v.setScaleX(1);
-                    v.setScaleY(1);
-                    v.setAlpha(1);
-                }
-
-                vs.clear();
-                s.clear();
-
-                lK = -1;
-                lastColor = null;
 
+                resetSelection();
                 dialog.dismiss();
             });
             super.setNegativeButton("Cancel", (dialog, which) -> dialog.dismiss());
@@ -274,12 +490,37 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
         return this;
     }
 
+    /**
+     * Update the swatches with the changes made to the colors since they were last drawn.<br>
+     * Only the swatches of the changed indices get their color updated, the grid is rebuilt only
+     * if colors were added, removed or set to null. The {@link ColorDialogBuilder#CANVAS} renderer
+     * reads the colors when it draws, it is redrawn as a whole. Nothing is done when the swatches already
+     * show the {@link Palette#version() version} of the colors, e.g. set again from the same
+     * {@link PaletteSnapshot}.
+     */
     public void refresh() {
-        ArrayList<Integer> integers = new ArrayList<>(colors);
-        for (int i = 0; i < integers.size(); i++) if (integers.get(i) == null) integers.remove(i);
-        for (int i = 0; i < buttons.size(); i++)
-            buttons.get(i).setColorFilter(integers.get(i), PorterDuff.Mode.SRC_ATOP);
-        changed = false;
+        if (colors.version() == drawnVersion) {
+            colors.clearDirty();
+            return;
+        }
+        if (colors.isStructureChanged() || colors.nullCount() != 0) {
+            create(colors);
+            return;
+        }
+        if (renderer == VIRTUAL) {
+            GridView gridView = rootLayout.findViewById(R.id.grid);
+            int first = gridView.getFirstVisiblePosition(), count = gridView.getChildCount();
+            for (int i = colors.nextDirty(first); i != -1 && i < first + count; i = colors.nextDirty(i + 1))
+                ((ImageButton) gridView.getChildAt(i - first)).setColorFilter(colors.get(i), PorterDuff.Mode.SRC_ATOP);
+        } else if (renderer == CANVAS) {
+            rootLayout.findViewById(R.id.canvas).invalidate();
+        } else {
+            for (int i = colors.nextDirty(0); i != -1 && i < buttons.size(); i = colors.nextDirty(i + 1))
+                buttons.get(i).setColorFilter(colors.get(i), PorterDuff.Mode.SRC_ATOP);
+        }
+        if (metrics != null) metrics.onCount(Metrics.SWATCHES_REFRESHED, colors.dirtyCount());
+        colors.clearDirty();
+        drawnVersion = colors.version();
     }
 
     /**
@@ -299,9 +540,26 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
      */
     @Override
     public D create() {
+        final long start = timings != null ? System.nanoTime() : 0;
+        Tracing.begin(Tracing.CREATE);
+        if (reuse && target != null) {
+            resetSelection();
+            if (builtColumns != getColumns() || builtType != getType() || builtRenderer != renderer
+                    || mode == Mode.CONTINUOUS || builtMode == Mode.CONTINUOUS)
+                create(colors);
+            else {
+                refresh();
+                bindRecents(swatchStyle());
+            }
+            preselect();
+            Tracing.end();
+            if (timings != null) timings.onPhase(Timings.CREATE, System.nanoTime() - start);
+            return target;
+        }
         super.setView(rootLayout);
 
         create(colors);
+        preselect();
 
         //noinspection unchecked
         target = (D) super.create();
@@ -309,67 +567,247 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
         if (target != null) {
             target.setOnDismissListener(dialog -> {
                 if (mode == Mode.SECONDARY_SELECTION) {
-                    colors = new ArrayList<>();
-                    for (int i = 0; i < secondaryColors.size(); i++)
-                        colors.add(i, secondaryColors.get(i).get(0));
+                    if (!secondaryColors.isEmpty() || shades == null) secondaryColors.copyPrimaries(colors);
+                    else if (mainSelected != null) colors.setAll(primaries);
                     mainSelected = null;
+                    stagedRow = -1;
                     create(colors);
                 }
-                for (DialogListener listener : dialogListeners)
-                    if (listener instanceof DialogListener.Dismiss)
-                        ((DialogListener.Dismiss) listener).onDismiss(dialog);
+                for (DialogListener.Dismiss listener : listeners.dismiss.array())
+                    listener.onDismiss(dialog);
             });
 
             target.setOnCancelListener(dialog -> {
-                for (DialogListener listener : dialogListeners)
-                    if (listener instanceof DialogListener.Cancel)
-                        ((DialogListener.Cancel) listener).onCancel(dialog);
+                for (DialogListener.Cancel listener : listeners.cancel.array())
+                    listener.onCancel(dialog);
             });
 
             target.setOnShowListener(dialog -> {
-                for (DialogListener listener : dialogListeners)
-                    if (listener instanceof DialogListener.Show)
-                        ((DialogListener.Show) listener).onShow(dialog);
-                if (changed)
+                long shown = timings != null ? System.nanoTime() : 0;
+                Tracing.begin(Tracing.SHOW);
+                for (DialogListener.Show listener : listeners.show.array())
+                    listener.onShow(dialog);
+                if (isChanged())
                     refresh();
+                if (highlight != -1) {
+                    View v = swatch(highlight);
+                    if (v != null) animate(v, highlight, true, false);
+                    highlight = -1;
+                }
+                Tracing.end();
+                if (timings != null) timings.onPhase(Timings.SHOW, System.nanoTime() - shown);
+            });
+        }
+        Tracing.end();
+
+        final Timings timings = this.timings;
+        if (timings != null) {
+            timings.onPhase(Timings.CREATE, System.nanoTime() - start);
+            final ViewTreeObserver observer = rootLayout.getViewTreeObserver();
+            observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    if (observer.isAlive()) observer.removeOnPreDrawListener(this);
+                    timings.onPhase(Timings.FIRST_FRAME, System.nanoTime() - start);
+                    return true;
+                }
             });
         }
-
         return target;
     }
 
-    private void create(ArrayList<Integer> integers) {
+    /**
+     * Prepare the current colors for {@link ColorDialogBuilder#create()} on executor.<br>
+     * The color filters and layout specs of the swatches are computed in the background, then the
+     * swatch views are created on the main thread ahead of time, so create() and show() only bind
+     * the finished state. The preparation is dropped if the colors, columns, type or number
+     * of colors change before create().
+     *
+     * @param executor executor running the background work
+     * @param listener called on the main thread once everything is ready, may be null
+     * @return a {@link Future} done once the background work is done.
+     */
+    public Future<?> prewarm(@NonNull Executor executor, @Nullable final OnPrewarmListener listener) {
+        final int[] snapshot = new int[colors.colorCount()];
+        final int size = colors.toArray(snapshot);
+        final int count = Math.max(size, numColor), cl = getColumns(), t = swatchStyle();
+        final Timings timings = this.timings;
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            long start = timings != null ? System.nanoTime() : 0;
+            Tracing.begin(Tracing.PREPARE);
+            prepared = new PreparedGrid(snapshot, size, count, cl, t);
+            Tracing.end();
+            if (timings != null) timings.onPhase(Timings.PREPARE, System.nanoTime() - start);
+            main.post(() -> {
+                if (renderer == GRID) warmPool(t, count);
+                if (listener != null) listener.onPrewarmed(this);
+            });
+        }, null);
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * @see ColorDialogBuilder#prewarm(Executor, OnPrewarmListener)
+     */
+    public Future<?> prewarm(@NonNull Executor executor) {
+        return prewarm(executor, null);
+    }
+
+    /**
+     * When enabled the dialog built by the first {@link ColorDialogBuilder#create()} is kept, and the
+     * following calls (and {@link ColorDialogBuilder#show()}) return it again after clearing the selection.
+     * The swatches are only updated for the colors that changed, and rebuilt if the columns, type or
+     * renderer changed. The {@link ColorDialogBuilder.Mode} must be set before the first create().
+     *
+     * @see DialogCache
+     */
+    public ColorDialogBuilder<D> setReuseDialog(boolean reuse) {
+        this.reuse = reuse;
+        return this;
+    }
+
+    public boolean isReuseDialog() {
+        return reuse;
+    }
+
+    /**
+     * @return The current dispatch policy can be {@link ColorDialogBuilder#IMMEDIATE},
+     * {@link ColorDialogBuilder#ON_ANIMATION_END} or {@link ColorDialogBuilder#DEFERRED}.
+     */
+    public int getDispatch() {
+        return dispatch;
+    }
+
+    /**
+     * Set when {@link Listener.Tap} and {@link Listener.SecondarySelection} are called after a tap.<br>
+     * Use {@link ColorDialogBuilder#IMMEDIATE} for the lowest latency, the listeners are then called
+     * while the tap animation runs. The latency is reported as {@link Timings#DISPATCH}.
+     *
+     * @param dispatch can be {@link ColorDialogBuilder#IMMEDIATE},
+     *                 {@link ColorDialogBuilder#ON_ANIMATION_END} or {@link ColorDialogBuilder#DEFERRED}.
+     */
+    public ColorDialogBuilder<D> setDispatch(@p int dispatch) {
+        this.dispatch = dispatch;
+        return this;
+    }
+
+    /**
+     * @param delay delay in milliseconds of the {@link ColorDialogBuilder#DEFERRED} dispatch, 250 by default.
+     */
+    public ColorDialogBuilder<D> setDispatchDelay(long delay) {
+        this.dispatchDelay = delay;
+        return this;
+    }
+
+    /**
+     * @param timings receives the duration of each {@link Timings phase} of opening the dialog, or null.
+     */
+    public ColorDialogBuilder<D> setTimings(@Nullable Timings timings) {
+        this.timings = timings;
+        this.metrics = timings instanceof Metrics ? (Metrics) timings : null;
+        return this;
+    }
+
+    /**
+     * @param metrics receives the duration of each {@link Timings phase} of opening the dialog
+     *                and the {@link Metrics counters} of the work done, or null.
+     */
+    public ColorDialogBuilder<D> setMetrics(@Nullable Metrics metrics) {
+        return setTimings(metrics);
+    }
+
+    private void create(Palette palette) {
+        long start = timings != null ? System.nanoTime() : 0;
+        Tracing.begin(Tracing.BUILD);
 
         GridLayout gridLayout = rootLayout.findViewById(R.id.root);
         gridLayout.removeAllViews();
-
-        for (int i = 0; i < integers.size(); i++) if (integers.get(i) == null) integers.remove(i);
-
-        int cl, l, row = (l = integers.size()) / (cl = getColumns()) + 1;
-        int t = getType() == SQUARE ? R.style.square : R.style.circular;
-        if (l == 0) {
-            l = numColor;
-            integers = new ArrayList<>(l);
-            Collections.fill(integers, -1);
-        } else if (l < numColor) {
-            ArrayList<Integer> f = new ArrayList<>(numColor - l);
-            Collections.fill(f, -1);
-            integers.addAll(f);
-        } else {
-            numColor = l;
+        for (int i = 0; i < buttons.size(); i++) pool.release(buttons.get(i));
+        buttons.clear();
+        lastView = null;
+
+        palette.compact();
+        palette.clearDirty();
+        drawnVersion = palette.version();
+
+        int size = palette.size();
+        int cl, l = Math.max(size, numColor), row = l / (cl = getColumns()) + 1;
+        int t = swatchStyle();
+        if (size > numColor) numColor = size;
+        s.resize(size);
+        builtColumns = cl;
+        builtType = getType();
+        builtRenderer = renderer;
+        builtMode = mode;
+
+        GridView gridView = rootLayout.findViewById(R.id.grid);
+        SwatchGridView canvas = rootLayout.findViewById(R.id.canvas);
+        ColorPickerView picker = rootLayout.findViewById(R.id.picker);
+        bindRecents(t);
+        if (mode == Mode.CONTINUOUS) {
+            gridView.setVisibility(View.GONE);
+            gridLayout.setVisibility(View.GONE);
+            canvas.setVisibility(View.GONE);
+            rootLayout.findViewById(R.id.scroll).setVisibility(View.VISIBLE);
+            picker.setVisibility(View.VISIBLE);
+            picker.setColor(lastColor != null ? lastColor : preselect != null ? preselect
+                    : size != 0 ? palette.get(0) : Color.WHITE);
+            built(start);
+            return;
+        }
+        picker.setVisibility(View.GONE);
+        boolean virtual = renderer == VIRTUAL, drawn = renderer == CANVAS;
+        rootLayout.findViewById(R.id.scroll).setVisibility(virtual ? View.GONE : View.VISIBLE);
+        gridView.setVisibility(virtual ? View.VISIBLE : View.GONE);
+        gridLayout.setVisibility(drawn ? View.GONE : View.VISIBLE);
+        canvas.setVisibility(drawn ? View.VISIBLE : View.GONE);
+        if (drawn) {
+            canvas.setColumns(cl);
+            canvas.setType(getType());
+            canvas.setOnSwatchClickListener(gl);
+            canvas.setOnSwatchDownListener(gtl);
+            canvas.setPalette(palette, l);
+            bindSelection();
+            if (metrics != null) metrics.onCount(Metrics.SWATCHES_BOUND, l);
+            built(start);
+            return;
+        }
+        if (virtual) {
+            gridView.setNumColumns(cl);
+            if (adapter == null || adapter.style != t) {
+                adapter = new SwatchAdapter(t);
+                gridView.setAdapter(adapter);
+            } else adapter.notifyDataSetChanged();
+            built(start);
+            return;
         }
         gridLayout.setColumnCount(cl);
         gridLayout.setRowCount(row);
+        pool.setStyle(t);
 
+        PreparedGrid p = prepared;
+        if (p != null) {
+            prepared = null;
+            if (!p.matches(palette, l, cl, t)) p = null;
+            else if (p.specs.length > specs.length) specs = p.specs;
+        }
+
+        int created = 0;
         for (int i = 0, cc = 0, rr = 0; i < l; i++) {
-            GridLayout.Spec sR = GridLayout.spec(rr);
-            GridLayout.Spec sC = GridLayout.spec(cc);
-            Utilities.Resources res = new Utilities.Resources(getContext());
-            ImageButton b = new ImageButton(new ContextThemeWrapper(c, t), null, t);
+            ImageButton b = pool.acquire();
+            if (b == null) {
+                b = newSwatch(t, new GridLayout.LayoutParams());
+                created++;
+            }
+            bindState(b, i);
+            GridLayout.LayoutParams params = (GridLayout.LayoutParams) b.getLayoutParams();
+            params.rowSpec = spec(rr);
+            params.columnSpec = spec(cc);
+            b.setLayoutParams(params);
             b.setId(i);
-            b.setLayoutParams(new GridLayout.LayoutParams(sR, sC));
-            b.setOnClickListener(this.l);
-            b.setColorFilter(integers.get(i), PorterDuff.Mode.SRC_ATOP);
+            if (p != null) b.setColorFilter(p.filters[i]);
+            else b.setColorFilter(i < size ? palette.get(i) : Color.WHITE, PorterDuff.Mode.SRC_ATOP);
 
             gridLayout.addView(b);
 
@@ -381,6 +819,115 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
                 cc++;
             buttons.add(b);
         }
+        if (metrics != null) {
+            metrics.onCount(Metrics.SWATCHES_BOUND, l);
+            metrics.onCount(Metrics.VIEWS_CREATED, created);
+            metrics.onCount(Metrics.VIEWS_REUSED, l - created);
+        }
+        built(start);
+    }
+
+    private void built(long start) {
+        Tracing.end();
+        if (timings != null) timings.onPhase(Timings.BUILD, System.nanoTime() - start);
+    }
+
+    private int swatchStyle() {
+        return getType() == SQUARE ? R.style.square : R.style.circular;
+    }
+
+    /**
+     * @return the resolved style, shared with the other builders of the context.
+     */
+    private SwatchStyles.Style resolve(int style) {
+        if (resolved == null || resolvedStyle != style) {
+            resolved = SwatchStyles.get(c, style);
+            resolvedStyle = style;
+        }
+        return resolved;
+    }
+
+    /**
+     * Create idle swatches in the pool until n swatches exist or the pool is full.
+     */
+    private void warmPool(int style, int n) {
+        pool.setStyle(style);
+        while (buttons.size() + pool.size() < n && pool.size() < pool.getCapacity())
+            pool.release(newSwatch(style, new GridLayout.LayoutParams()));
+    }
+
+    private ImageButton newSwatch(int style, ViewGroup.LayoutParams params) {
+        ImageButton b = resolve(style).newSwatch(params);
+        b.setOnClickListener(l);
+        b.setOnTouchListener(tl);
+        return b;
+    }
+
+    /**
+     * Fill the recents row, reusing its swatches unless the style changed.
+     */
+    private void bindRecents(int style) {
+        LinearLayout row = rootLayout.findViewById(R.id.recents);
+        int n = 0;
+        if (recents != null) {
+            int capacity = 2 * recents.capacity();
+            if (recentColors.length < capacity) {
+                recentColors = new int[capacity];
+                recentIndices = new int[capacity];
+            }
+            int count = recents.getAll(recentColors);
+            for (int i = 0; i < count; i++) {
+                int color = recentColors[i], k = -1;
+                // an exact match, a linear scan does not create the PaletteIndex kept up to date on every change
+                if (mode != Mode.CONTINUOUS && (k = colors.indexOf(color)) == -1) continue;
+                recentColors[n] = color;
+                recentIndices[n++] = k;
+            }
+        }
+        row.setVisibility(n == 0 ? View.GONE : View.VISIBLE);
+        if (recentStyle != style) {
+            row.removeAllViews();
+            recentStyle = style;
+        }
+        for (int i = 0; i < n; i++) {
+            ImageButton b;
+            if (i < row.getChildCount()) b = (ImageButton) row.getChildAt(i);
+            else {
+                b = resolve(style).newSwatch(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+                        ViewGroup.LayoutParams.WRAP_CONTENT));
+                b.setId(i);
+                b.setOnClickListener(rl);
+                row.addView(b);
+            }
+            b.setVisibility(View.VISIBLE);
+            b.setColorFilter(recentColors[i], PorterDuff.Mode.SRC_ATOP);
+        }
+        for (int i = n; i < row.getChildCount(); i++) row.getChildAt(i).setVisibility(View.GONE);
+    }
+
+    /**
+     * Materialize the secondary colors of the primary color k before the click completes,
+     * and create the swatch views the secondary grid will need.
+     */
+    private void prefetch(int k) {
+        if (!prefetchOnTouch || mode != Mode.SECONDARY_SELECTION || mainSelected != null
+                || k < 0 || k == stagedRow) return;
+        if (k < secondaryColors.rows()) secondaryColors.copyRow(k, staged);
+        else if (secondaryColors.isEmpty() && shades != null && k < colors.size() && !colors.isNull(k))
+            shades.row(colors.get(k), staged);
+        else return;
+        stagedRow = k;
+        if (renderer == GRID) warmPool(swatchStyle(), Math.max(staged.size(), numColor));
+    }
+
+    /**
+     * @return the shared {@link GridLayout.Spec} of the cell i.
+     */
+    private GridLayout.Spec spec(int i) {
+        if (i >= specs.length) specs = Arrays.copyOf(specs, Math.max(i + 1, specs.length * 2));
+        GridLayout.Spec spec = specs[i];
+        if (spec == null) specs[i] = spec = GridLayout.spec(i);
+        return spec;
     }
 
     @Nullable
@@ -392,38 +939,105 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
      * @see ColorDialogBuilder#setColors(String...)
      */
     public ColorDialogBuilder<D> setColors(@ColorInt Integer... colors) {
-        changed = true;
-        this.colors = new ArrayList<>();
-        Collections.addAll(this.colors, colors);
+        this.colors.clear();
+        add(colors);
         return this;
     }
 
     /**
-     * @param colors Add color to existing {@link ArrayList} of {@link ColorDialogBuilder#colors}.
+     * Same as {@link ColorDialogBuilder#setColors(Integer...)} without boxing.
+     *
+     * @param colors colors to <B>set</B> in dialog
+     * @return Current object of class {@link ColorDialogBuilder}
+     */
+    public ColorDialogBuilder<D> setColors(@NonNull @ColorInt int[] colors) {
+        return setColors(colors, 0, colors.length);
+    }
+
+    /**
+     * @param colors source array of colors
+     * @param offset index of the first color to use in colors
+     * @param length number of colors to use
+     * @return Current object of class {@link ColorDialogBuilder}
+     * @see ColorDialogBuilder#setColors(int[])
+     */
+    public ColorDialogBuilder<D> setColors(@NonNull @ColorInt int[] colors, int offset, int length) {
+        this.colors.setAll(colors, offset, length);
+        return this;
+    }
+
+    /**
+     * Use the colors of snapshot, they are shared with the other users of the snapshot and only
+     * copied once changed. {@link ColorDialogBuilder#refresh()} does nothing if the dialog
+     * already shows them.
+     *
+     * @return Current object of class {@link ColorDialogBuilder}
+     * @see Palette#snapshot()
+     */
+    public ColorDialogBuilder<D> setColors(@NonNull PaletteSnapshot snapshot) {
+        this.colors.setAll(snapshot);
+        return this;
+    }
+
+    /**
+     * Use a palette read by {@link PaletteLoader}.<br>
+     * If the palette has a hierarchy each row is used as {@link ColorDialogBuilder#setSecondaryColors(Integer[][]) secondary colors}
+     * with its first color as the primary color.
+     *
+     * @return Current object of class {@link ColorDialogBuilder}
+     */
+    public ColorDialogBuilder<D> setColors(@NonNull PaletteLoader.Result palette) {
+        if (palette.rows() == 0) return setColors(palette.colors, 0, palette.size());
+        //noinspection ConstantConditions
+        return setSecondaryColors(palette.colors, palette.offsets);
+    }
+
+    /**
+     * @param colors Add color to existing {@link Palette} of {@link ColorDialogBuilder#colors}.
      * @return Current object of class {@link ColorDialogBuilder}
      */
     public ColorDialogBuilder<D> addColors(@ColorInt Integer... colors) {
-        Collections.addAll(this.colors, colors);
-        changed = colors.length == 0;
+        add(colors);
         return this;
     }
 
     public ColorDialogBuilder<D> addColors(@Size(min = 1) String... colors) {
-        for (String s : colors) this.colors.add(Color.parseColor(s));
-        changed = colors.length == 0;
+        this.colors.ensureCapacity(this.colors.size() + colors.length);
+        for (String s : colors) this.colors.add(parseColor(s));
         return this;
     }
 
     public ColorDialogBuilder<D> updateColor(@ColorInt Integer color, int index) {
-        Integer[] integers = getColors();
-        colors.remove(index);
-        colors.add(index, color);
-        changed = !Arrays.equals(getColors(), integers);
+        if (color == null) colors.setNull(index);
+        else colors.set(index, color);
+        return this;
+    }
+
+    /**
+     * Same as {@link ColorDialogBuilder#updateColor(Integer, int)} without boxing.
+     */
+    public ColorDialogBuilder<D> updateColor(@ColorInt int color, int index) {
+        colors.set(index, color);
+        return this;
+    }
+
+    /**
+     * Update a batch of colors in one call, colors[i] is set at indices[i].<br>
+     * Use {@link ColorDialogBuilder#refresh()} to update only the swatches that changed.
+     *
+     * @param indices indices of the colors to update
+     * @param colors  new colors, same length as indices
+     * @return Current object of class {@link ColorDialogBuilder}
+     */
+    public ColorDialogBuilder<D> updateColors(@NonNull int[] indices, @NonNull @ColorInt int[] colors) {
+        if (indices.length != colors.length)
+            throw new IllegalArgumentException("indices.length: " + indices.length + " != colors.length: " + colors.length);
+        for (int i = 0; i < indices.length; i++) this.colors.set(indices[i], colors[i]);
         return this;
     }
 
     public ColorDialogBuilder<D> updateColor(@Size(min = 1) String color, int index) {
-        return updateColor(Color.parseColor(color), index);
+        return updateColor(parseColor(color), index);
     }
 
     /**
@@ -439,14 +1053,72 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
      *               <B>HINT: It should also contain primary colors</B>
      */
     public ColorDialogBuilder<D> setSecondaryColors(@ColorInt Integer[][] colors) {
-        for (Integer[] ints : colors) {
-            ArrayList<Integer> integers = new ArrayList<>();
-            Collections.addAll(integers, ints);
-            secondaryColors.add(integers);
-        }
-        this.colors = new ArrayList<>();
-        for (int i = 0; i < colors.length; i++)
-            this.colors.add(i, secondaryColors.get(i).get(0));
+        for (Integer[] ints : colors) secondaryColors.addRow(ints);
+        secondaryColors.copyPrimaries(this.colors);
+        return this;
+    }
+
+    /**
+     * Same as {@link ColorDialogBuilder#setSecondaryColors(Integer[][])} with the rows stored flat,
+     * the existing secondary colors are replaced.
+     *
+     * @param values  the colors of all the rows one after the other
+     * @param offsets row r is values[offsets[r]] until values[offsets[r + 1]], its first color
+     *                being the primary color
+     */
+    public ColorDialogBuilder<D> setSecondaryColors(@NonNull @ColorInt int[] values, @NonNull int[] offsets) {
+        secondaryColors.setAll(values, offsets, offsets.length - 1);
+        secondaryColors.copyPrimaries(this.colors);
+        stagedRow = -1;
+        return this;
+    }
+
+    /**
+     * @return the secondary colors, see {@link ColorDialogBuilder#setSecondaryColors(Integer[][])}.
+     */
+    @NonNull
+    public SecondaryPalette getSecondaryColors() {
+        return secondaryColors;
+    }
+
+    /**
+     * Generate the secondary colors of {@link ColorDialogBuilder.Mode#SECONDARY_SELECTION} instead of
+     * listing them with {@link ColorDialogBuilder#setSecondaryColors(Integer[][])}: only the primary
+     * colors are {@link ColorDialogBuilder#setColors(int[]) set}, and the row of a primary color is
+     * generated when it is tapped.<br>
+     * It is used only while no secondary colors are set.
+     *
+     * @param generator generator of the secondary colors, or null to disable it
+     */
+    public ColorDialogBuilder<D> setShadeGenerator(@Nullable ShadeGenerator generator) {
+        this.shades = generator;
+        return this;
+    }
+
+    /**
+     * Show the recent and favorite colors in a row above the swatches, and record the
+     * colors picked in them. Outside of {@link ColorDialogBuilder.Mode#CONTINUOUS} only the
+     * ones in the colors are shown, tapping one is the same as tapping its swatch.
+     *
+     * @param recents recent colors, or null to hide the row
+     */
+    public ColorDialogBuilder<D> setRecentColors(@Nullable RecentColors recents) {
+        this.recents = recents;
+        return this;
+    }
+
+    @Nullable
+    public RecentColors getRecentColors() {
+        return recents;
+    }
+
+    /**
+     * When enabled, touching a primary color in {@link ColorDialogBuilder.Mode#SECONDARY_SELECTION}
+     * prepares its secondary colors and swatch views before the click completes,
+     * so the secondary screen appears with no visible stall.
+     */
+    public ColorDialogBuilder<D> setPrefetchOnTouch(boolean prefetchOnTouch) {
+        this.prefetchOnTouch = prefetchOnTouch;
         return this;
     }
 
@@ -463,18 +1135,46 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
      *               and <i>sub colors</i> are shown on next screen.
      */
     public ColorDialogBuilder<D> setSecondaryColors(@Size(min = 1) String[][] colors) {
+        int[] row = new int[0];
         for (String[] strings : colors) {
-            ArrayList<Integer> integers = new ArrayList<>();
-            for (String s : strings) integers.add(Color.parseColor(s));
-            secondaryColors.add(integers);
+            if (strings.length > row.length) row = new int[strings.length];
+            for (int i = 0; i < strings.length; i++) row[i] = parseColor(strings[i]);
+            secondaryColors.addRow(row, 0, strings.length);
         }
+        secondaryColors.copyPrimaries(this.colors);
         return this;
     }
 
     @NonNull
     @ColorInt
     public Integer[] getColors() {
-        return colors.toArray(new Integer[0]);
+        return colors.toBoxedArray();
+    }
+
+    /**
+     * Copy the colors of the dialog into dst without boxing, empty slots are skipped.
+     *
+     * @param dst destination array, if it is too small only the first dst.length colors are copied.
+     * @return number of colors written to dst.
+     */
+    public int getColors(@NonNull @ColorInt int[] dst) {
+        return colors.toArray(dst);
+    }
+
+    /**
+     * @return an immutable snapshot of the colors, to share them with other builders.
+     */
+    @NonNull
+    public PaletteSnapshot getSnapshot() {
+        return colors.snapshot();
+    }
+
+    /**
+     * @return the {@link Palette} backing the dialog.
+     */
+    @NonNull
+    public Palette getPalette() {
+        return colors;
     }
 
     /**
@@ -484,9 +1184,9 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
      * @return Current object of class {@link ColorDialogBuilder}
      */
     public ColorDialogBuilder<D> setColors(@Size(min = 1) String... colors) {
-        changed = true;
-        this.colors = new ArrayList<>();
-        for (String s : colors) this.colors.add(Color.parseColor(s));
+        this.colors.clear();
+        this.colors.ensureCapacity(this.colors.size() + colors.length);
+        for (String s : colors) this.colors.add(parseColor(s));
         return this;
     }
 
@@ -519,6 +1219,58 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
         return this;
     }
 
+    /**
+     * @return The current renderer can be {@link ColorDialogBuilder#GRID},
+     * {@link ColorDialogBuilder#VIRTUAL} or {@link ColorDialogBuilder#CANVAS}.
+     */
+    public int getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Use {@link ColorDialogBuilder#VIRTUAL} for very large palettes, the time to open the dialog
+     * and the memory used then stay the same whatever the number of colors.<br>
+     * Use {@link ColorDialogBuilder#CANVAS} to draw all the colors in a single view.
+     *
+     * @param renderer Set how the colors are rendered can be {@link ColorDialogBuilder#GRID},
+     *                 {@link ColorDialogBuilder#VIRTUAL} or {@link ColorDialogBuilder#CANVAS}.
+     */
+    public ColorDialogBuilder<D> setRenderer(@r int renderer) {
+        this.renderer = renderer;
+        return this;
+    }
+
+    /**
+     * Hex strings given to {@link ColorDialogBuilder} are parsed without allocation,
+     * a cache avoids parsing again the strings seen recently. The same cache can be shared
+     * by several builders of the same thread.
+     *
+     * @param cache cache of parsed colors, or null to disable it.
+     */
+    public ColorDialogBuilder<D> setParseCache(@Nullable HexColors.Cache cache) {
+        this.parseCache = cache;
+        return this;
+    }
+
+    /**
+     * @return maximum number of idle swatch views kept for reuse.
+     * @see ColorDialogBuilder#setPoolCapacity(int)
+     */
+    public int getPoolCapacity() {
+        return pool.getCapacity();
+    }
+
+    /**
+     * Swatch views removed from the grid, e.g. when going from the primary to the secondary colors,
+     * are kept in a pool and reused by the next grid instead of creating new views.
+     *
+     * @param capacity maximum number of idle views kept, 0 disables the pool.
+     */
+    public ColorDialogBuilder<D> setPoolCapacity(int capacity) {
+        pool.setCapacity(capacity);
+        return this;
+    }
+
     /**
      * @return Number of columns.
      */
@@ -532,12 +1284,12 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
     }
 
     public ColorDialogBuilder<D> addListeners(Listener... listeners) {
-        Collections.addAll(this.listeners, listeners);
+        for (Listener listener : listeners) this.listeners.add(listener);
         return this;
     }
 
     public ColorDialogBuilder<D> removeListeners(Listener... listeners) {
-        this.listeners.removeAll(Arrays.asList(listeners));
+        for (Listener listener : listeners) this.listeners.remove(listener);
         return this;
     }
 
@@ -546,17 +1298,167 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
      * else <b>0</b>.
      */
     public int getColorSelectionCount() {
-        return s.size();
+        fitSelection();
+        return s.count();
+    }
+
+    /**
+     * @return the indices of the selected colors when the mode is
+     * {@link ColorDialogBuilder.Mode#MULTI_SELECTION}.<br>
+     * <b>Use the selection methods of {@link ColorDialogBuilder} to change it, so the swatches are updated.</b>
+     */
+    @NonNull
+    public Selection getSelection() {
+        fitSelection();
+        return s;
+    }
+
+    /**
+     * Copy the indices of the selected colors into dst without allocating.
+     *
+     * @return number of indices written to dst.
+     */
+    public int getSelectedIndices(@NonNull int[] dst) {
+        fitSelection();
+        return s.getIndices(dst);
+    }
+
+    /**
+     * Copy the selected colors into dst without allocating.
+     *
+     * @return number of colors written to dst.
+     */
+    public int getSelectedColors(@NonNull @ColorInt int[] dst) {
+        fitSelection();
+        return s.getColors(colors, dst);
+    }
+
+    public ColorDialogBuilder<D> selectAll() {
+        fitSelection();
+        s.selectAll();
+        bindSelection();
+        return this;
+    }
+
+    public ColorDialogBuilder<D> clearSelection() {
+        s.clear();
+        bindSelection();
+        return this;
+    }
+
+    public ColorDialogBuilder<D> invertSelection() {
+        fitSelection();
+        s.invert();
+        bindSelection();
+        return this;
+    }
+
+    /**
+     * Select or unselect the colors from (inclusive) to (exclusive).
+     */
+    public ColorDialogBuilder<D> setSelected(int from, int to, boolean selected) {
+        fitSelection();
+        s.setRange(from, to, selected);
+        bindSelection();
+        return this;
+    }
+
+    /**
+     * @return the nearest color index of the colors of the dialog, created on first use and
+     * kept up to date as the colors change.
+     */
+    @NonNull
+    public PaletteIndex getPaletteIndex() {
+        if (index == null) index = new PaletteIndex(colors);
+        return index;
+    }
+
+    /**
+     * @return the index of the color of the dialog perceptually nearest to color, or -1 if there is no color.
+     * @see PaletteIndex
+     */
+    public int findNearest(@ColorInt int color) {
+        return getPaletteIndex().nearest(color);
+    }
+
+    /**
+     * Preselect the swatch nearest to color when the dialog is created: it is selected in
+     * {@link ColorDialogBuilder.Mode#SINGLE_SELECTION} and {@link ColorDialogBuilder.Mode#MULTI_SELECTION},
+     * and highlighted when the dialog is shown in the other modes.
+     *
+     * @param color any color, e.g. sampled from a photo, or null to disable it
+     */
+    public ColorDialogBuilder<D> setPreselectNearest(@ColorInt Integer color) {
+        this.preselect = color;
+        return this;
+    }
+
+    private void preselect() {
+        if (preselect == null) return;
+        int k = findNearest(preselect);
+        if (k == -1) return;
+        if (mode == Mode.SINGLE_SELECTION) {
+            lK = k;
+            lastColor = colors.get(k);
+            lastView = swatch(k);
+            bindSelection();
+        } else if (mode == Mode.MULTI_SELECTION) {
+            fitSelection();
+            s.set(k, true);
+            bindSelection();
+        } else if (mode != Mode.CONTINUOUS) highlight = k;
+    }
+
+    /**
+     * @return the view of the swatch at index k, the {@link SwatchGridView} for the
+     * {@link ColorDialogBuilder#CANVAS} renderer, or null if it is not on screen.
+     */
+    @Nullable
+    private View swatch(int k) {
+        if (renderer == CANVAS) return rootLayout.findViewById(R.id.canvas);
+        if (renderer == GRID) return k < buttons.size() ? buttons.get(k) : null;
+        GridView gridView = rootLayout.findViewById(R.id.grid);
+        int i = k - gridView.getFirstVisiblePosition();
+        return i >= 0 && i < gridView.getChildCount() ? gridView.getChildAt(i) : null;
+    }
+
+    /**
+     * Forget the selected colors, only the swatches that were selected are updated.
+     */
+    private void resetSelection() {
+        if (s.isEmpty() && lK == -1) return;
+        s.clear();
+        lK = -1;
+        lastColor = null;
+        lastView = null;
+        bindSelection();
+    }
+
+    /**
+     * @return the selected colors boxed for {@link ColorDialogBuilder.Listener.MultiSelection}.
+     */
+    private Integer[] getSelectedColors() {
+        Integer[] selection = new Integer[s.count()];
+        for (int i = s.nextSelected(0), n = 0; i != -1 && i < colors.size(); i = s.nextSelected(i + 1))
+            selection[n++] = colors.get(i);
+        return selection;
+    }
+
+    /**
+     * Make the selection exactly as large as the colors, so the empty swatches padding the
+     * grid up to {@link ColorDialogBuilder#numColor} are never selected.
+     */
+    private void fitSelection() {
+        if (s.size() != colors.size()) s.resize(colors.size());
     }
 
     public ColorDialogBuilder<D> addDialogListeners(DialogListener... listeners) {
-        this.dialogListeners = new ArrayList<>();
-        Collections.addAll(this.dialogListeners, listeners);
+        for (DialogListener listener : listeners) this.listeners.add(listener);
         return this;
     }
 
     public ColorDialogBuilder<D> removeDialogListeners(DialogListener... listeners) {
-        this.dialogListeners.removeAll(Arrays.asList(listeners));
+        for (DialogListener listener : listeners) this.listeners.remove(listener);
         return this;
     }
 
@@ -564,8 +1466,11 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
         return rootLayout;
     }
 
+    /**
+     * @return true if the colors changed since they were last drawn.
+     */
     public boolean isChanged() {
-        return changed;
+        return colors.version() != drawnVersion;
     }
 
     /**
@@ -589,26 +1494,118 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
         return this;
     }
 
-    private void tap(final Listener listener, View v) {
-        final int k = v.getId();
-        new Handler().postDelayed(() -> {
-            if (listener instanceof Listener.Tap)
-                ((Listener.Tap) listener).onTap(colors.get(k), k);
-            else if (listener instanceof Listener.SecondarySelection)
-                ((Listener.SecondarySelection) listener).onSecondarySelect(colors.get(k), mainSelected);
-            if (target != null) target.dismiss();
-        }, A + 25);
-        animate(v, true, false);
+    /**
+     * Parse a hex color with {@link HexColors}, color names fall back to {@link Color#parseColor(String)}.
+     */
+    @ColorInt
+    private int parseColor(String color) {
+        if (color.length() == 0 || color.charAt(0) != '#') return Color.parseColor(color);
+        return parseCache != null ? parseCache.parse(color) : HexColors.parse(color);
+    }
+
+    private void add(Integer[] colors) {
+        this.colors.ensureCapacity(this.colors.size() + colors.length);
+        for (Integer color : colors)
+            if (color == null) this.colors.addNull();
+            else this.colors.add(color);
+    }
+
+    private void tap(View v, int k, @ColorInt int color) {
+        main.removeCallbacks(dismiss);
+        if (dispatch == IMMEDIATE) {
+            long time = timings != null ? System.nanoTime() : 0;
+            pulse(v, k, null);
+            notifyTap(k, color, mainSelected, time);
+            main.postDelayed(dismiss, A - 25);
+            return;
+        }
+        PendingTap tap = freeTaps;
+        if (tap != null) freeTaps = tap.next;
+        else tap = new PendingTap();
+        tap.set(k, color, mainSelected);
+        pendingTaps++;
+        if (dispatch == ON_ANIMATION_END) pulse(v, k, tap);
+        else {
+            pulse(v, k, null);
+            main.postDelayed(tap, dispatchDelay);
+        }
+    }
+
+    /**
+     * Call the listeners of a tap.
+     *
+     * @param primary {@link ColorDialogBuilder#mainSelected} when the color was tapped.
+     * @param time    {@link System#nanoTime()} of the tap.
+     */
+    private void notifyTap(int k, @ColorInt int color, Integer primary, long time) {
+        Tracing.begin(Tracing.DISPATCH);
+        if (recents != null) recents.record(color);
+        if (mode == Mode.TAP)
+            for (Listener.Tap listener : listeners.tap.array()) listener.onTap(color, k);
+        else for (Listener.SecondarySelection listener : listeners.secondary.array())
+            listener.onSecondarySelect(color, primary);
+        Tracing.end();
+        if (timings != null) timings.onPhase(Timings.DISPATCH, System.nanoTime() - time);
+    }
+
+    private void dismissTarget() {
+        if (target != null) target.dismiss();
+    }
+
+    private void animate(View v, int k, boolean t, boolean tog) {
+        if (t) pulse(v, k, null);
+        else if (v instanceof SwatchGridView) ((SwatchGridView) v).animateTo(k, tog ? .8f : 1, tog ? .95f : 1, A);
+        else SwatchAnimator.of(v).animateTo(tog ? .8f : 1, tog ? .95f : 1, A);
     }
 
-    private void animate(View v, boolean t, boolean tog) {
-        if (t) {
-            ObjectAnimator.ofObject(v, "scaleY", new FloatEvaluator(), 1, 1.2f, 1)
-                    .setDuration(A - 25).start();
-            ObjectAnimator.ofObject(v, "scaleX", new FloatEvaluator(), 1, 1.2f, 1)
-                    .setDuration(A - 25).start();
-        } else v.animate().scaleX(tog ? .8f : 1).scaleY(tog ? .8f : 1).alpha(tog ? .95f : 1)
-                .setInterpolator(interpolator).setDuration(A).start();
+    /**
+     * Pulse the tapped swatch.
+     *
+     * @param end run once the pulse ends, or is replaced or cancelled.
+     */
+    private void pulse(View v, int k, @Nullable Runnable end) {
+        if (v instanceof SwatchGridView) ((SwatchGridView) v).pulse(k, A - 25, end);
+        else SwatchAnimator.of(v).pulse(1.2f, A - 25, end);
+    }
+
+    private void scale(View v, int k, float scale) {
+        if (v instanceof SwatchGridView) ((SwatchGridView) v).animateTo(k, scale, 1, A);
+        else SwatchAnimator.of(v).animateTo(scale, 1, A);
+    }
+
+    /**
+     * Set the scale and alpha of every swatch of the current renderer from the selection state.
+     */
+    private void bindSelection() {
+        if (renderer == CANVAS) {
+            SwatchGridView canvas = rootLayout.findViewById(R.id.canvas);
+            canvas.resetStates();
+            if (mode == Mode.MULTI_SELECTION)
+                for (int i = s.nextSelected(0); i != -1; i = s.nextSelected(i + 1)) canvas.setState(i, .8f, .95f);
+            else if (mode == Mode.SINGLE_SELECTION && lastColor != null) canvas.setState(lK, 1.2f, 1);
+        } else if (renderer == VIRTUAL) {
+            if (adapter != null) adapter.notifyDataSetChanged();
+        } else for (int i = 0; i < buttons.size(); i++) bindState(buttons.get(i), i);
+    }
+
+    /**
+     * Set the scale and alpha of the swatch v at index i from the selection state.
+     */
+    private void bindState(View v, int i) {
+        float scale = 1, alpha = 1;
+        if (mode == Mode.MULTI_SELECTION && i < s.size() && s.isSelected(i)) {
+            scale = .8f;
+            alpha = .95f;
+        } else if (mode == Mode.SINGLE_SELECTION && i == lK && lastColor != null)
+            scale = 1.2f;
+        SwatchAnimator.set(v, scale, alpha);
+    }
+
+    /**
+     * @see ColorDialogBuilder#prewarm(Executor, OnPrewarmListener)
+     */
+    public interface OnPrewarmListener {
+        void onPrewarmed(ColorDialogBuilder<?> builder);
     }
 
     public enum Mode {
@@ -637,7 +1634,15 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
          *
          * @see ColorDialogBuilder#setSecondaryColors(Integer[][])
          */
-        SECONDARY_SELECTION
+        SECONDARY_SELECTION,
+        /**
+         * Any color is picked on a {@link ColorPickerView} instead of the swatches, the color the
+         * picker opens with is the last selected, else the {@link ColorDialogBuilder#setPreselectNearest(Integer)
+         * preselected} one, else the first of the palette.<br>
+         * {@link ColorDialogBuilder.Listener.SingleSelection#onSingleSelect(Integer, int)} is called with an
+         * index of -1 when DONE is pressed.
+         */
+        CONTINUOUS
     }
 
     /**
@@ -705,9 +1710,41 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
             void onSingleSelect(Integer selectedColor, int index);
         }
 
+        /**
+         * Listener corresponds to {@link ColorDialogBuilder.Mode#MULTI_SELECTION},
+         * it receives each change of the selection instead of the whole selection.
+         */
+        interface SelectionDelta extends Listener {
+            /**
+             * Called when a color is selected or unselected.
+             *
+             * @param index    The index of the color
+             * @param color    The color
+             * @param selected true if the color was added to the selection, false if it was removed
+             */
+            void onSelectionChanged(int index, @ColorInt int color, boolean selected);
+        }
+
+        /**
+         * Listener corresponds to {@link ColorDialogBuilder.Mode#MULTI_SELECTION},
+         * called when the selection is confirmed with the DONE button.
+         */
+        interface SelectionCommit extends Listener {
+            /**
+             * The arrays are reused by the next commit, copy them to keep the selection.
+             *
+             * @param indices the indices of the selected colors, in increasing order
+             * @param colors  the selected colors, colors[i] is at indices[i]
+             * @param count   number of selected colors, only the first count elements are valid
+             */
+            void onSelectionCommit(@NonNull int[] indices, @NonNull @ColorInt int[] colors, int count);
+        }
+
         /**
          * Check {@link ColorDialogBuilder.Listener.MultiSelection#onMultiSelect(Integer[], int)}
-         * for description.
+         * for description.<br>
+         * <b>It copies the whole selection on every change, prefer {@link Listener.SelectionDelta}
+         * and {@link Listener.SelectionCommit}.</b>
          */
         interface MultiSelection extends Listener {
             /**
@@ -745,4 +1782,107 @@ public final class ColorDialogBuilder<D extends AlertDialog> extends AlertDialog
     @IntDef(value = {SQUARE, CIRCULAR})
     private @interface y {
     }
+
+    @IntDef(value = {GRID, VIRTUAL, CANVAS})
+    private @interface r {
+    }
+
+    @IntDef(value = {IMMEDIATE, ON_ANIMATION_END, DEFERRED})
+    private @interface p {
+    }
+
+    /**
+     * A tap waiting to be dispatched. Every tap has its own so a tap never replaces the one before
+     * it, and the color and primary color are kept as they change when the dialog of
+     * {@link ColorDialogBuilder.Mode#SECONDARY_SELECTION} is dismissed. Once dispatched it is
+     * kept in {@link ColorDialogBuilder#freeTaps} for a next tap.
+     */
+    private final class PendingTap implements Runnable {
+        private int index, color;
+        private Integer primary;
+        private long time;
+        @Nullable
+        private PendingTap next;
+
+        void set(int index, @ColorInt int color, Integer primary) {
+            this.index = index;
+            this.color = color;
+            this.primary = primary;
+            time = timings != null ? System.nanoTime() : 0;
+            next = null;
+        }
+
+        @Override
+        public void run() {
+            pendingTaps--;
+            notifyTap(index, color, primary, time);
+            primary = null;
+            next = freeTaps;
+            freeTaps = this;
+            dismiss.run();
+        }
+    }
+
+    /**
+     * Calls the {@link Listener.MultiSelection} listeners from the delta and commit events,
+     * with the whole selection boxed as they expect.
+     */
+    private final class LegacyMultiSelection implements ListenerRegistry.Legacy {
+        @Override
+        public void onSelectionChanged(int index, int color, boolean selected) {
+            Integer[] selection = getSelectedColors();
+            for (Listener.MultiSelection listener : listeners.multi.array())
+                listener.onMultiSelect(selection, color);
+        }
+
+        @Override
+        public void onSelectionCommit(@NonNull int[] indices, @NonNull int[] colors, int count) {
+            Integer[] selection = new Integer[count];
+            for (int i = 0; i < count; i++) selection[i] = colors[i];
+            for (Listener.MultiSelection listener : listeners.multi.array())
+                listener.onMultiSelect(selection, lK);
+        }
+    }
+
+    /**
+     * Adapter of the {@link ColorDialogBuilder#VIRTUAL} renderer, binds the color of the
+     * position and its selection state to a recycled swatch.
+     */
+    private final class SwatchAdapter extends BaseAdapter {
+        private final int style;
+
+        SwatchAdapter(int style) {
+            this.style = style;
+        }
+
+        @Override
+        public int getCount() {
+            return Math.max(colors.size(), numColor);
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return position < colors.size() ? colors.get(position) : Color.WHITE;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            ImageButton b = (ImageButton) convertView;
+            if (b == null) b = newSwatch(style, new AbsListView.LayoutParams(
+                    ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            if (metrics != null) {
+                metrics.onCount(Metrics.SWATCHES_BOUND, 1);
+                metrics.onCount(convertView == null ? Metrics.VIEWS_CREATED : Metrics.VIEWS_REUSED, 1);
+            }
+            b.setId(position);
+            b.setColorFilter(position < colors.size() ? colors.get(position) : Color.WHITE, PorterDuff.Mode.SRC_ATOP);
+            bindState(b, position);
+            return b;
+        }
+    }
 }
\ No newline at end of file
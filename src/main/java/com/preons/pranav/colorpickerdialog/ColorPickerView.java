@@ -0,0 +1,306 @@
+package com.preons.pranav.colorpickerdialog;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Shader;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewParent;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.Size;
+
+/**
+ * Free form color picker used by {@link ColorDialogBuilder.Mode#CONTINUOUS}: a saturation/value
+ * plane, a hue strip on its right and an alpha strip below.
+ * <p>
+ * The gradients and the checkerboard are rendered once into bitmaps shared by every
+ * {@link ColorPickerView} and rebuilt only when the size changes, drawing the view is then a few
+ * bitmap blits: the plane is its hue filled and covered by a hue independent white/black overlay,
+ * and the alpha strip is an {@link Bitmap.Config#ALPHA_8} ramp tinted with the color, so a drag
+ * redraws the whole view at the cost of these few blits.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ColorPickerView extends View {
+
+    private static final int NONE = 0, PLANE = 1, HUE = 2, ALPHA = 3;
+
+    /**
+     * Bitmaps shared by every picker, only used from the main thread.
+     */
+    @Nullable
+    private static Bitmap overlay, hues, ramp, checker;
+    @Nullable
+    private static BitmapShader checkerShader;
+
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint checkerPaint = new Paint();
+    private final Paint ring = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final int strip, gap, thumb, checkerCell, preferred;
+    private final Rect plane = new Rect(), hue = new Rect(), alpha = new Rect();
+    private final float[] hsv = new float[3];
+
+    private float h, s = 1, v = 1;
+    private int a = 255;
+    private boolean alphaEnabled = true;
+    private int target = NONE;
+    @Nullable
+    private OnColorChangedListener listener;
+
+    public ColorPickerView(Context context) {
+        this(context, null);
+    }
+
+    public ColorPickerView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        Resources res = context.getResources();
+        strip = res.getDimensionPixelSize(R.dimen.hue_strip);
+        gap = res.getDimensionPixelSize(R.dimen.pad12dp);
+        thumb = res.getDimensionPixelSize(R.dimen.thumb_radius);
+        checkerCell = res.getDimensionPixelSize(R.dimen.pad4dp);
+        preferred = 5 * res.getDimensionPixelSize(R.dimen.buttonSize);
+        ring.setStyle(Paint.Style.STROKE);
+        ring.setStrokeWidth(res.getDimension(R.dimen.pad2dp));
+    }
+
+    /**
+     * Release the bitmaps shared by the pickers, e.g. on {@link android.content.ComponentCallbacks2#onTrimMemory(int)}.
+     * They are rendered again by the next picker drawn.
+     */
+    public static void trimMemory() {
+        overlay = hues = ramp = checker = null;
+        checkerShader = null;
+    }
+
+    @ColorInt
+    public int getColor() {
+        return a << 24 | ColorSpaces.hsvToRgb(h, s, v) & 0xffffff;
+    }
+
+    public void setColor(@ColorInt int color) {
+        ColorSpaces.rgbToHsv(color, hsv);
+        // a gray has no hue, the hue strip keeps its position
+        if (hsv[1] != 0) h = hsv[0];
+        s = hsv[1];
+        v = hsv[2];
+        a = alphaEnabled ? color >>> 24 : 255;
+        invalidate();
+    }
+
+    /**
+     * @param out receives the color in OKLCH, see {@link ColorSpaces#toOklch(int, float[])}.
+     */
+    public void getOklch(@NonNull @Size(min = 3) float[] out) {
+        ColorSpaces.toOklch(getColor(), out);
+    }
+
+    /**
+     * @param enabled false to hide the alpha strip, the color is then opaque.
+     */
+    public void setAlphaEnabled(boolean enabled) {
+        if (alphaEnabled == enabled) return;
+        alphaEnabled = enabled;
+        if (!enabled) a = 255;
+        requestLayout();
+        invalidate();
+    }
+
+    public void setOnColorChangedListener(@Nullable OnColorChangedListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = resolveSize(preferred + getPaddingLeft() + getPaddingRight(), widthMeasureSpec);
+        int side = width - getPaddingLeft() - getPaddingRight() - gap - strip;
+        int height = side + getPaddingTop() + getPaddingBottom() + (alphaEnabled ? gap + strip : 0);
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        int l = getPaddingLeft(), t = getPaddingTop(), r = w - getPaddingRight();
+        int side = Math.max(1, Math.min(r - l - gap - strip,
+                h - t - getPaddingBottom() - (alphaEnabled ? gap + strip : 0)));
+        plane.set(l, t, l + side, t + side);
+        hue.set(plane.right + gap, t, plane.right + gap + strip, t + side);
+        alpha.set(l, plane.bottom + gap, hue.right, plane.bottom + gap + strip);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (plane.isEmpty()) return;
+        prepareBitmaps();
+        int rgb = ColorSpaces.hsvToRgb(h, s, v), pure = ColorSpaces.hsvToRgb(h, 1, 1);
+
+        paint.setColor(pure);
+        paint.setStyle(Paint.Style.FILL);
+        canvas.drawRect(plane.left, plane.top, plane.right, plane.bottom, paint);
+        //noinspection ConstantConditions
+        canvas.drawBitmap(overlay, plane.left, plane.top, bitmapPaint);
+        canvas.drawBitmap(hues, hue.left, hue.top, bitmapPaint);
+        if (alphaEnabled) {
+            canvas.drawRect(alpha.left, alpha.top, alpha.right, alpha.bottom, checkerPaint);
+            bitmapPaint.setColor(rgb);
+            canvas.drawBitmap(ramp, alpha.left, alpha.top, bitmapPaint);
+            bitmapPaint.setColor(Color.BLACK);
+        }
+
+        drawThumb(canvas, planeX(), planeY(), rgb);
+        drawThumb(canvas, hue.centerX(), hueY(), pure);
+        if (alphaEnabled) drawThumb(canvas, alphaX(), alpha.centerY(), getColor() | 0xff000000);
+    }
+
+    private void drawThumb(Canvas canvas, float x, float y, int color) {
+        paint.setColor(color);
+        canvas.drawCircle(x, y, thumb, paint);
+        ring.setColor(Color.WHITE);
+        canvas.drawCircle(x, y, thumb, ring);
+        ring.setColor(0x40000000);
+        canvas.drawCircle(x, y, thumb + ring.getStrokeWidth(), ring);
+    }
+
+    /**
+     * Render the shared bitmaps missing or of another size.
+     */
+    private void prepareBitmaps() {
+        int side = plane.width();
+        if (overlay == null || overlay.getWidth() != side || overlay.getHeight() != side) {
+            overlay = Bitmap.createBitmap(side, side, Bitmap.Config.ARGB_8888);
+            Canvas c = new Canvas(overlay);
+            Paint p = new Paint();
+            p.setShader(new LinearGradient(0, 0, side, 0, Color.WHITE, 0x00ffffff, Shader.TileMode.CLAMP));
+            c.drawRect(0, 0, side, side, p);
+            p.setShader(new LinearGradient(0, 0, 0, side, 0, Color.BLACK, Shader.TileMode.CLAMP));
+            c.drawRect(0, 0, side, side, p);
+        }
+        if (hues == null || hues.getWidth() != hue.width() || hues.getHeight() != hue.height()) {
+            hues = Bitmap.createBitmap(hue.width(), hue.height(), Bitmap.Config.ARGB_8888);
+            int[] colors = new int[7];
+            for (int i = 0; i < 7; i++) colors[i] = ColorSpaces.hsvToRgb(i * 60 % 360, 1, 1);
+            Paint p = new Paint();
+            p.setShader(new LinearGradient(0, 0, 0, hue.height(), colors, null, Shader.TileMode.CLAMP));
+            new Canvas(hues).drawRect(0, 0, hue.width(), hue.height(), p);
+        }
+        if (!alphaEnabled) return;
+        if (ramp == null || ramp.getWidth() != alpha.width() || ramp.getHeight() != alpha.height()) {
+            ramp = Bitmap.createBitmap(alpha.width(), alpha.height(), Bitmap.Config.ALPHA_8);
+            Paint p = new Paint();
+            p.setShader(new LinearGradient(0, 0, alpha.width(), 0, 0, Color.BLACK, Shader.TileMode.CLAMP));
+            new Canvas(ramp).drawRect(0, 0, alpha.width(), alpha.height(), p);
+        }
+        if (checker == null || checker.getWidth() != 2 * checkerCell) {
+            int n = 2 * checkerCell;
+            int[] pixels = new int[n * n];
+            for (int y = 0; y < n; y++)
+                for (int x = 0; x < n; x++)
+                    pixels[y * n + x] = (x < checkerCell) == (y < checkerCell) ? Color.WHITE : 0xffcccccc;
+            checker = Bitmap.createBitmap(pixels, n, n, Bitmap.Config.ARGB_8888);
+            checkerShader = new BitmapShader(checker, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT);
+        }
+        checkerPaint.setShader(checkerShader);
+    }
+
+    private float planeX() {
+        return plane.left + s * plane.width();
+    }
+
+    private float planeY() {
+        return plane.top + (1 - v) * plane.height();
+    }
+
+    private float hueY() {
+        return hue.top + h / 360 * hue.height();
+    }
+
+    private float alphaX() {
+        return alpha.left + a / 255f * alpha.width();
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        float x = event.getX(), y = event.getY();
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                target = near(plane, x, y) ? PLANE : near(hue, x, y) ? HUE
+                        : alphaEnabled && near(alpha, x, y) ? ALPHA : NONE;
+                if (target == NONE) return false;
+                ViewParent parent = getParent();
+                if (parent != null) parent.requestDisallowInterceptTouchEvent(true);
+                move(x, y);
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (target != NONE) move(x, y);
+                return target != NONE;
+            case MotionEvent.ACTION_UP:
+                if (target != NONE) {
+                    move(x, y);
+                    performClick();
+                }
+                target = NONE;
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                target = NONE;
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    private boolean near(Rect r, float x, float y) {
+        return x >= r.left - thumb && x <= r.right + thumb && y >= r.top - thumb && y <= r.bottom + thumb;
+    }
+
+    /**
+     * Move the thumb of the dragged area to (x, y).
+     */
+    private void move(float x, float y) {
+        switch (target) {
+            case PLANE:
+                s = clamp((x - plane.left) / plane.width());
+                v = 1 - clamp((y - plane.top) / plane.height());
+                break;
+            case HUE:
+                h = Math.min(clamp((y - hue.top) / hue.height()) * 360, 359.99f);
+                break;
+            case ALPHA:
+                a = Math.round(clamp((x - alpha.left) / alpha.width()) * 255);
+                break;
+        }
+        invalidate();
+        if (listener != null) listener.onColorChanged(this, getColor());
+    }
+
+    private static float clamp(float f) {
+        return f < 0 ? 0 : f > 1 ? 1 : f;
+    }
+
+    /**
+     * Called while the color of a {@link ColorPickerView} is dragged.
+     */
+    public interface OnColorChangedListener {
+        void onColorChanged(ColorPickerView view, @ColorInt int color);
+    }
+}
@@ -0,0 +1,184 @@
+package com.preons.pranav.colorpickerdialog;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Size;
+
+/**
+ * Conversions between sRGB colors and the perceptual OKLab / OKLCH color spaces, and the HSV
+ * coordinates of the sRGB colors.<br>
+ * Distances in OKLab follow the perceived difference of colors much better than distances
+ * in RGB, they are used to find the nearest color of a palette and to generate shades.
+ * <p>
+ * L is in [0, 1], a and b are roughly in [-0.4, 0.4], the chroma C of OKLCH is roughly in
+ * [0, 0.4] and its hue h is in degrees [0, 360). Converting back to sRGB clips the channels
+ * of the colors outside of the sRGB gamut. The hue of HSV is also in degrees, S and V are in [0, 1].
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ColorSpaces {
+
+    /**
+     * Linear value of every 8 bit sRGB channel.
+     */
+    private static final float[] LINEAR = new float[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            double c = i / 255d;
+            LINEAR[i] = (float) (c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4));
+        }
+    }
+
+    private ColorSpaces() {
+    }
+
+    /**
+     * @return the linear light value in [0, 1] of an 8 bit sRGB channel.
+     */
+    public static float toLinear(int channel) {
+        return LINEAR[channel & 0xff];
+    }
+
+    /**
+     * @return the 8 bit sRGB channel of a linear light value, clipped to [0, 255].
+     */
+    public static int fromLinear(float value) {
+        if (value <= 0) return 0;
+        if (value >= 1) return 255;
+        double c = value <= 0.0031308 ? 12.92 * value : 1.055 * Math.pow(value, 1 / 2.4) - 0.055;
+        return (int) (c * 255 + .5);
+    }
+
+    /**
+     * Convert color to OKLab, the alpha is ignored.
+     *
+     * @param out receives L, a and b
+     */
+    public static void toOklab(@ColorInt int color, @NonNull @Size(min = 3) float[] out) {
+        float r = LINEAR[color >> 16 & 0xff], g = LINEAR[color >> 8 & 0xff], b = LINEAR[color & 0xff];
+        double l = Math.cbrt(0.4122214708 * r + 0.5363325363 * g + 0.0514459929 * b);
+        double m = Math.cbrt(0.2119034982 * r + 0.6806995451 * g + 0.1073969566 * b);
+        double s = Math.cbrt(0.0883024619 * r + 0.2817188376 * g + 0.6299787005 * b);
+        out[0] = (float) (0.2104542553 * l + 0.7936177850 * m - 0.0040720468 * s);
+        out[1] = (float) (1.9779984951 * l - 2.4285922050 * m + 0.4505937099 * s);
+        out[2] = (float) (0.0259040371 * l + 0.7827717662 * m - 0.8086757660 * s);
+    }
+
+    /**
+     * @return the opaque sRGB color of the OKLab coordinates.
+     */
+    @ColorInt
+    public static int fromOklab(float L, float a, float b) {
+        double l = L + 0.3963377774 * a + 0.2158037573 * b;
+        double m = L - 0.1055613458 * a - 0.0638541728 * b;
+        double s = L - 0.0894841775 * a - 1.2914855480 * b;
+        l = l * l * l;
+        m = m * m * m;
+        s = s * s * s;
+        int r = fromLinear((float) (4.0767416621 * l - 3.3077115913 * m + 0.2309699292 * s));
+        int g = fromLinear((float) (-1.2684380046 * l + 2.6097574011 * m - 0.3413193965 * s));
+        int bl = fromLinear((float) (-0.0041960863 * l - 0.7034186147 * m + 1.7076147010 * s));
+        return 0xff000000 | r << 16 | g << 8 | bl;
+    }
+
+    /**
+     * Convert color to OKLCH, the alpha is ignored.
+     *
+     * @param out receives L, C and h (degrees)
+     */
+    public static void toOklch(@ColorInt int color, @NonNull @Size(min = 3) float[] out) {
+        toOklab(color, out);
+        float a = out[1], b = out[2];
+        out[1] = (float) Math.sqrt(a * a + b * b);
+        float h = (float) Math.toDegrees(Math.atan2(b, a));
+        out[2] = h < 0 ? h + 360 : h;
+    }
+
+    /**
+     * @return the opaque sRGB color of the OKLCH coordinates, h in degrees.
+     */
+    @ColorInt
+    public static int fromOklch(float L, float C, float h) {
+        double r = Math.toRadians(h);
+        return fromOklab(L, (float) (C * Math.cos(r)), (float) (C * Math.sin(r)));
+    }
+
+    /**
+     * @return the squared OKLab distance between two colors.
+     * @see ColorSpaces#distanceSquared(int, int, float[]) to compare many colors without allocating
+     */
+    public static float distanceSquared(@ColorInt int c1, @ColorInt int c2) {
+        return distanceSquared(c1, c2, new float[3]);
+    }
+
+    /**
+     * @param scratch caller-owned array the OKLab coordinates of the colors are written to
+     * @return the squared OKLab distance between two colors.
+     */
+    public static float distanceSquared(@ColorInt int c1, @ColorInt int c2, @NonNull @Size(min = 3) float[] scratch) {
+        toOklab(c1, scratch);
+        float L = scratch[0], a = scratch[1], b = scratch[2];
+        toOklab(c2, scratch);
+        return distanceSquared(scratch, 0, L, a, b);
+    }
+
+    /**
+     * @param lab OKLab coordinates, e.g. computed once for every color of a palette
+     * @param i   offset of the L, a and b of a color in lab
+     * @return the squared OKLab distance between the color at i and (L, a, b).
+     */
+    public static float distanceSquared(@NonNull float[] lab, int i, float L, float a, float b) {
+        float dl = lab[i] - L, da = lab[i + 1] - a, db = lab[i + 2] - b;
+        return dl * dl + da * da + db * db;
+    }
+
+    /**
+     * @return the opaque sRGB color of the HSV coordinates, h in degrees.
+     */
+    @ColorInt
+    public static int hsvToRgb(float h, float s, float v) {
+        float c = v * s, hp = (h % 360) / 60f, x = c * (1 - Math.abs(hp % 2 - 1)), m = v - c;
+        float r, g, b;
+        if (hp < 1) {
+            r = c; g = x; b = 0;
+        } else if (hp < 2) {
+            r = x; g = c; b = 0;
+        } else if (hp < 3) {
+            r = 0; g = c; b = x;
+        } else if (hp < 4) {
+            r = 0; g = x; b = c;
+        } else if (hp < 5) {
+            r = x; g = 0; b = c;
+        } else {
+            r = c; g = 0; b = x;
+        }
+        return 0xff000000 | channel(r + m) << 16 | channel(g + m) << 8 | channel(b + m);
+    }
+
+    /**
+     * Convert color to HSV, the alpha is ignored.
+     *
+     * @param out receives H (degrees), S and V, H is 0 for the grays
+     */
+    public static void rgbToHsv(@ColorInt int color, @NonNull @Size(min = 3) float[] out) {
+        int r = color >> 16 & 0xff, g = color >> 8 & 0xff, b = color & 0xff;
+        int max = Math.max(r, Math.max(g, b)), min = Math.min(r, Math.min(g, b)), d = max - min;
+        float h = 0;
+        if (d != 0) {
+            h = max == r ? (g - b) / (float) d : max == g ? 2 + (b - r) / (float) d : 4 + (r - g) / (float) d;
+            h = h < 0 ? h * 60 + 360 : h * 60;
+        }
+        out[0] = h;
+        out[1] = max == 0 ? 0 : d / (float) max;
+        out[2] = max / 255f;
+    }
+
+    private static int channel(float value) {
+        return Math.max(0, Math.min(255, Math.round(value * 255)));
+    }
+}
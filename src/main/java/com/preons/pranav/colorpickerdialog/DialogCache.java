@@ -0,0 +1,136 @@
+package com.preons.pranav.colorpickerdialog;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
+
+/**
+ * Small LRU of built {@link ColorDialogBuilder}s, so a picker opened many times is built once.<br>
+ * Entries are keyed by the identity of the palette (the object the colors came from, e.g. a
+ * {@link PaletteLoader.Result} or an <b>int</b> array), the columns, the type and the mode.
+ * <p>
+ * The cache is owned by the caller and holds the builders and their {@link android.content.Context},
+ * clear it when the screen using it is destroyed. <b>Not thread safe.</b>
+ * </p>
+ * <pre>
+ * ColorDialogBuilder&lt;AlertDialog&gt; builder = cache.get(colors, 5, ColorDialogBuilder.CIRCULAR, Mode.TAP);
+ * if (builder == null) {
+ *     builder = new ColorDialogBuilder&lt;&gt;(context).setColors(colors).setColumns(5)...;
+ *     cache.put(colors, builder);
+ * }
+ * builder.show();
+ * </pre>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class DialogCache {
+
+    private final Object[] palettes;
+    private final int[] columns;
+    private final int[] types;
+    private final ColorDialogBuilder.Mode[] modes;
+    private final ColorDialogBuilder<?>[] builders;
+    /**
+     * Time of the last access of every entry, the smallest one is evicted first.
+     */
+    private final long[] used;
+    private long clock;
+    private int size;
+
+    /**
+     * @param capacity maximum number of builders kept.
+     */
+    public DialogCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        palettes = new Object[capacity];
+        columns = new int[capacity];
+        types = new int[capacity];
+        modes = new ColorDialogBuilder.Mode[capacity];
+        builders = new ColorDialogBuilder<?>[capacity];
+        used = new long[capacity];
+    }
+
+    /**
+     * @return the builder cached for the given key, or null.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <D extends AlertDialog> ColorDialogBuilder<D> get(
+            @NonNull Object palette, int columns, int type, @NonNull ColorDialogBuilder.Mode mode) {
+        int i = indexOf(palette, columns, type, mode);
+        if (i == -1) return null;
+        used[i] = ++clock;
+        return (ColorDialogBuilder<D>) builders[i];
+    }
+
+    /**
+     * Cache builder under palette and its current columns, type and mode, evicting the
+     * least recently used entry if the cache is full. {@link ColorDialogBuilder#setReuseDialog(boolean)}
+     * is enabled on builder.
+     */
+    public void put(@NonNull Object palette, @NonNull ColorDialogBuilder<?> builder) {
+        builder.setReuseDialog(true);
+        int c = builder.getColumns(), t = builder.getType();
+        ColorDialogBuilder.Mode m = builder.getMode();
+        int i = indexOf(palette, c, t, m);
+        if (i == -1) {
+            if (size < builders.length) i = size++;
+            else {
+                i = 0;
+                for (int j = 1; j < size; j++) if (used[j] < used[i]) i = j;
+            }
+        }
+        palettes[i] = palette;
+        columns[i] = c;
+        types[i] = t;
+        modes[i] = m;
+        builders[i] = builder;
+        used[i] = ++clock;
+    }
+
+    /**
+     * Remove every entry of palette, e.g. after its colors changed.
+     */
+    public void remove(@NonNull Object palette) {
+        for (int i = size - 1; i >= 0; i--)
+            if (palettes[i] == palette) {
+                int last = --size;
+                palettes[i] = palettes[last];
+                columns[i] = columns[last];
+                types[i] = types[last];
+                modes[i] = modes[last];
+                builders[i] = builders[last];
+                used[i] = used[last];
+                palettes[last] = null;
+                modes[last] = null;
+                builders[last] = null;
+            }
+    }
+
+    public void clear() {
+        Arrays.fill(palettes, null);
+        Arrays.fill(modes, null);
+        Arrays.fill(builders, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return builders.length;
+    }
+
+    private int indexOf(Object palette, int columns, int type, ColorDialogBuilder.Mode mode) {
+        for (int i = 0; i < size; i++)
+            if (palettes[i] == palette && this.columns[i] == columns && types[i] == type && modes[i] == mode)
+                return i;
+        return -1;
+    }
+}
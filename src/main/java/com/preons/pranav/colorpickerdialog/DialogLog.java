@@ -0,0 +1,115 @@
+package com.preons.pranav.colorpickerdialog;
+
+import androidx.annotation.NonNull;
+import pranav.utilities.Log;
+
+/**
+ * {@link Log} of {@link ColorDialogBuilder} that does no work while logging is disabled.<br>
+ * The enabled flag is checked before anything else: the messages are formatted from a pattern
+ * and its arguments, and the throwables of the warnings are created by a {@link Factory}, only
+ * once the message is logged. The int arguments have their own overloads so they are not boxed.
+ * <p>
+ * In a pattern <b>{}</b> is replaced by the next argument and <b>{x}</b> by the next argument
+ * in hexadecimal, e.g. {@code log.d("{}: {x} at index {}", mode, color, index)}.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+final class DialogLog {
+
+    private final Log log = new Log();
+    private boolean enabled = log.isLoggingEnabled();
+
+    boolean isLoggingEnabled() {
+        return enabled;
+    }
+
+    void setLoggingEnabled(boolean enabled) {
+        log.setLoggingEnabled(enabled);
+        this.enabled = enabled;
+    }
+
+    void d(@NonNull String pattern, Object a) {
+        if (enabled) log.d(new Format(pattern).arg(a).end());
+    }
+
+    void d(@NonNull String pattern, Object a, Object b) {
+        if (enabled) log.d(new Format(pattern).arg(a).arg(b).end());
+    }
+
+    void d(@NonNull String pattern, Object a, int b) {
+        if (enabled) log.d(new Format(pattern).arg(a).arg(b).end());
+    }
+
+    void d(@NonNull String pattern, Object a, int b, int c) {
+        if (enabled) log.d(new Format(pattern).arg(a).arg(b).arg(c).end());
+    }
+
+    void w(@NonNull String message) {
+        if (enabled) log.w(message);
+    }
+
+    /**
+     * @param cause creates the throwable logged with the message, e.g. {@code NullPointerException::new}.
+     */
+    void w(@NonNull String message, @NonNull Factory<? extends Throwable> cause) {
+        if (enabled) log.w(message, cause.create());
+    }
+
+    /**
+     * Fills the placeholders of a pattern one argument after the other.
+     */
+    static final class Format {
+        private final String pattern;
+        private final StringBuilder sb;
+        private int from;
+
+        Format(@NonNull String pattern) {
+            this.pattern = pattern;
+            sb = new StringBuilder(pattern.length() + 16);
+        }
+
+        Format arg(Object value) {
+            int p = next();
+            if (p == 3 && value instanceof Integer) sb.append(Integer.toHexString((Integer) value));
+            else if (p != 0) sb.append(value);
+            return this;
+        }
+
+        Format arg(int value) {
+            int p = next();
+            if (p == 3) sb.append(Integer.toHexString(value));
+            else if (p != 0) sb.append(value);
+            return this;
+        }
+
+        String end() {
+            return sb.append(pattern, from, pattern.length()).toString();
+        }
+
+        /**
+         * Append the pattern up to its next placeholder and skip it.
+         *
+         * @return length of the placeholder, 3 for {x}, or 0 if there is none left.
+         */
+        private int next() {
+            for (int i = pattern.indexOf('{', from); i != -1; i = pattern.indexOf('{', i + 1)) {
+                int length = pattern.startsWith("{}", i) ? 2 : pattern.startsWith("{x}", i) ? 3 : 0;
+                if (length == 0) continue;
+                sb.append(pattern, from, i);
+                from = i + length;
+                return length;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Creates a value only when it is needed.
+     */
+    interface Factory<T> {
+        T create();
+    }
+}
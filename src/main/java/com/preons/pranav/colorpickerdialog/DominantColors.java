@@ -0,0 +1,315 @@
+package com.preons.pranav.colorpickerdialog;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+/**
+ * Extracts the dominant colors of an image, e.g. to open {@link ColorDialogBuilder} with
+ * {@link ColorDialogBuilder#setColors(int[]) the colors} of a photo.
+ * <p>
+ * The pixels are read straight from the ARGB buffer (with an offset and a stride, so a region
+ * of a larger buffer can be used) and counted in a histogram of 15 bit colors, every
+ * {@link DominantColors#setStep(int) step}-th pixel of every step-th row. The buffer is read in
+ * bands of rows, in parallel when a {@link ForkJoinPool} is set. The colors are then found
+ * by median cut over the histogram, most frequent first.
+ * </p>
+ * <p>
+ * Images too large to be in memory at once can be fed band by band to a
+ * {@link DominantColors.Histogram}.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class DominantColors {
+
+    private static final int BINS = 1 << 15;
+
+    private int step = 1;
+    private int tileHeight = 64;
+    private int minAlpha = 128;
+    @Nullable
+    private ForkJoinPool pool;
+
+    /**
+     * @param step read one pixel out of step in both directions, 1 reads every pixel.
+     */
+    public DominantColors setStep(int step) {
+        if (step < 1) throw new IllegalArgumentException("step: " + step);
+        this.step = step;
+        return this;
+    }
+
+    /**
+     * @param rows number of rows read together, rounded up to a multiple of the step.
+     */
+    public DominantColors setTileHeight(int rows) {
+        if (rows < 1) throw new IllegalArgumentException("rows: " + rows);
+        this.tileHeight = rows;
+        return this;
+    }
+
+    /**
+     * @param minAlpha pixels with a lower alpha are ignored, 128 by default.
+     */
+    public DominantColors setMinAlpha(int minAlpha) {
+        this.minAlpha = minAlpha;
+        return this;
+    }
+
+    /**
+     * @param pool pool reading the bands of rows in parallel, or null to read them on the calling thread.
+     */
+    @RequiresApi(21)
+    public DominantColors setPool(@Nullable ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * @return up to count dominant colors of the image, most frequent first.
+     */
+    @NonNull
+    @ColorInt
+    public int[] extract(@NonNull int[] pixels, int width, int height, int count) {
+        int[] dst = new int[count];
+        int n = extract(pixels, 0, width, width, height, dst);
+        if (n == count) return dst;
+        int[] colors = new int[n];
+        System.arraycopy(dst, 0, colors, 0, n);
+        return colors;
+    }
+
+    /**
+     * Extract up to dst.length dominant colors of the image, most frequent first.
+     *
+     * @param offset index of the top left pixel in pixels
+     * @param stride number of pixels between two rows in pixels
+     * @return number of colors written to dst.
+     */
+    public int extract(@NonNull int[] pixels, int offset, int stride, int width, int height,
+                       @NonNull @ColorInt int[] dst) {
+        if (width < 0 || height < 0 || offset < 0 || (height > 0 && width > 0
+                && (long) offset + (long) (height - 1) * stride + width > pixels.length))
+            throw new IndexOutOfBoundsException("Region out of the pixels");
+        int tile = (tileHeight + step - 1) / step * step;
+        Histogram h;
+        if (pool != null && height > tile) h = Parallel.histogram(pool, pixels, offset, stride, width, height, tile, step, minAlpha);
+        else {
+            h = new Histogram(step, minAlpha);
+            for (int y = 0; y < height; y += tile)
+                h.add(pixels, offset + y * stride, stride, width, Math.min(tile, height - y));
+        }
+        return h.quantize(dst, dst.length);
+    }
+
+    /**
+     * Histogram of the 15 bit colors of an image, filled band by band.
+     */
+    public static final class Histogram {
+        private final int[] counts = new int[BINS];
+        private final int step, minAlpha;
+        private long total;
+
+        /**
+         * @param step     read one pixel out of step in both directions
+         * @param minAlpha pixels with a lower alpha are ignored
+         */
+        public Histogram(int step, int minAlpha) {
+            if (step < 1) throw new IllegalArgumentException("step: " + step);
+            this.step = step;
+            this.minAlpha = minAlpha;
+        }
+
+        /**
+         * Count the pixels of a band of rows, keep the bands a multiple of the step high
+         * so the sampling stays even.
+         */
+        public void add(@NonNull int[] pixels, int offset, int stride, int width, int rows) {
+            int[] counts = this.counts;
+            long n = 0;
+            for (int y = 0; y < rows; y += step)
+                for (int i = offset + y * stride, end = i + width; i < end; i += step) {
+                    int c = pixels[i];
+                    if (c >>> 24 < minAlpha) continue;
+                    counts[(c >> 9 & 0x7c00) | (c >> 6 & 0x3e0) | (c >> 3 & 0x1f)]++;
+                    n++;
+                }
+            total += n;
+        }
+
+        /**
+         * Add the counts of other to this histogram.
+         */
+        public void add(@NonNull Histogram other) {
+            for (int i = 0; i < BINS; i++) counts[i] += other.counts[i];
+            total += other.total;
+        }
+
+        /**
+         * @return number of pixels counted.
+         */
+        public long total() {
+            return total;
+        }
+
+        /**
+         * Median cut of the histogram in up to count boxes, the average color of every box is
+         * written to dst, the most frequent first.
+         *
+         * @return number of colors written to dst.
+         */
+        public int quantize(@NonNull @ColorInt int[] dst, int count) {
+            count = Math.min(count, dst.length);
+            int n = 0;
+            for (int i = 0; i < BINS; i++) if (counts[i] != 0) n++;
+            if (n == 0 || count <= 0) return 0;
+            int[] bins = new int[n];
+            for (int i = 0, j = 0; i < BINS; i++) if (counts[i] != 0) bins[j++] = i;
+
+            // box b holds bins[lo[b]] until bins[hi[b]]
+            int[] lo = new int[count], hi = new int[count];
+            long[] population = new long[count];
+            int boxes = 1;
+            hi[0] = n;
+            population[0] = total;
+            int[] scratch = new int[n];
+            while (boxes < count) {
+                int b = -1;
+                for (int i = 0; i < boxes; i++)
+                    if (hi[i] - lo[i] > 1 && (b == -1 || population[i] > population[b])) b = i;
+                if (b == -1) break;
+                int split = split(bins, lo[b], hi[b], scratch);
+                lo[boxes] = split;
+                hi[boxes] = hi[b];
+                hi[b] = split;
+                population[boxes] = population(bins, split, hi[boxes]);
+                population[b] -= population[boxes];
+                boxes++;
+            }
+
+            // most frequent first
+            for (int i = 1; i < boxes; i++)
+                for (int j = i; j > 0 && population[j] > population[j - 1]; j--) {
+                    long p = population[j];
+                    population[j] = population[j - 1];
+                    population[j - 1] = p;
+                    int t = lo[j];
+                    lo[j] = lo[j - 1];
+                    lo[j - 1] = t;
+                    t = hi[j];
+                    hi[j] = hi[j - 1];
+                    hi[j - 1] = t;
+                }
+            for (int i = 0; i < boxes; i++) dst[i] = average(bins, lo[i], hi[i]);
+            return boxes;
+        }
+
+        /**
+         * Sort the bins of the box along its widest channel and return the index of the weighted median.
+         */
+        private int split(int[] bins, int from, int to, int[] scratch) {
+            int min0 = 31, max0 = 0, min1 = 31, max1 = 0, min2 = 31, max2 = 0;
+            for (int i = from; i < to; i++) {
+                int bin = bins[i], c0 = bin >> 10, c1 = bin >> 5 & 0x1f, c2 = bin & 0x1f;
+                min0 = Math.min(min0, c0);
+                max0 = Math.max(max0, c0);
+                min1 = Math.min(min1, c1);
+                max1 = Math.max(max1, c1);
+                min2 = Math.min(min2, c2);
+                max2 = Math.max(max2, c2);
+            }
+            int shift = max0 - min0 >= max1 - min1 && max0 - min0 >= max2 - min2 ? 10
+                    : max1 - min1 >= max2 - min2 ? 5 : 0;
+
+            // counting sort on the 5 bits of the channel
+            int[] start = new int[33];
+            for (int i = from; i < to; i++) start[(bins[i] >> shift & 0x1f) + 1]++;
+            for (int i = 1; i < 33; i++) start[i] += start[i - 1];
+            for (int i = from; i < to; i++) scratch[from + start[bins[i] >> shift & 0x1f]++] = bins[i];
+            System.arraycopy(scratch, from, bins, from, to - from);
+
+            long half = population(bins, from, to) / 2, sum = 0;
+            int i = from;
+            while (i < to - 1 && (sum += counts[bins[i]]) < half) i++;
+            return Math.max(from + 1, Math.min(i + 1, to - 1));
+        }
+
+        private long population(int[] bins, int from, int to) {
+            long p = 0;
+            for (int i = from; i < to; i++) p += counts[bins[i]];
+            return p;
+        }
+
+        private int average(int[] bins, int from, int to) {
+            long r = 0, g = 0, b = 0, p = 0;
+            for (int i = from; i < to; i++) {
+                int bin = bins[i];
+                long c = counts[bin];
+                r += c * ((bin >> 10) << 3 | 4);
+                g += c * ((bin >> 5 & 0x1f) << 3 | 4);
+                b += c * ((bin & 0x1f) << 3 | 4);
+                p += c;
+            }
+            return 0xff000000 | (int) (r / p) << 16 | (int) (g / p) << 8 | (int) (b / p);
+        }
+    }
+
+    /**
+     * Fork/join filling of the histogram, kept apart so {@link ForkJoinPool} is only
+     * loaded where it exists.
+     */
+    @RequiresApi(21)
+    private static final class Parallel extends RecursiveTask<Histogram> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] pixels;
+        private final int offset, stride, width, from, to, leaf, tile, step, minAlpha;
+
+        private Parallel(int[] pixels, int offset, int stride, int width, int from, int to,
+                         int leaf, int tile, int step, int minAlpha) {
+            this.pixels = pixels;
+            this.offset = offset;
+            this.stride = stride;
+            this.width = width;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.tile = tile;
+            this.step = step;
+            this.minAlpha = minAlpha;
+        }
+
+        static Histogram histogram(ForkJoinPool pool, int[] pixels, int offset, int stride, int width,
+                                   int height, int tile, int step, int minAlpha) {
+            // a few leaves per core, each leaf allocates its own histogram
+            int leaves = Math.max(1, pool.getParallelism() * 4);
+            int leaf = Math.max(tile, (height / leaves + tile - 1) / tile * tile);
+            return pool.invoke(new Parallel(pixels, offset, stride, width, 0, height, leaf, tile, step, minAlpha));
+        }
+
+        @Override
+        protected Histogram compute() {
+            if (to - from <= leaf) {
+                Histogram h = new Histogram(step, minAlpha);
+                for (int y = from; y < to; y += tile)
+                    h.add(pixels, offset + y * stride, stride, width, Math.min(tile, to - y));
+                return h;
+            }
+            int mid = from + (to - from) / 2 / tile * tile;
+            if (mid == from) mid += tile;
+            Parallel left = new Parallel(pixels, offset, stride, width, from, mid, leaf, tile, step, minAlpha);
+            left.fork();
+            Histogram h = new Parallel(pixels, offset, stride, width, mid, to, leaf, tile, step, minAlpha).compute();
+            h.add(left.join());
+            return h;
+        }
+    }
+}
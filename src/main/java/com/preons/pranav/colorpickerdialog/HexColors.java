@@ -0,0 +1,183 @@
+package com.preons.pranav.colorpickerdialog;
+
+import java.nio.CharBuffer;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+
+/**
+ * Allocation free parser of hex colors, {@code #RGB}, {@code #RRGGBB} and {@code #AARRGGBB}.
+ * <p>
+ * Unlike {@link android.graphics.Color#parseColor(String)} it works on any {@link CharSequence},
+ * never allocates and can parse a whole {@code String[]} or {@link CharBuffer} straight into an
+ * <b>int</b> array. Color names are not supported.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class HexColors {
+
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        for (int i = 0; i < DIGITS.length; i++) DIGITS[i] = -1;
+        for (int i = 0; i < 10; i++) DIGITS['0' + i] = (byte) i;
+        for (int i = 0; i < 6; i++) {
+            DIGITS['a' + i] = (byte) (10 + i);
+            DIGITS['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private HexColors() {
+    }
+
+    /**
+     * @param color color such as {@code #RGB}, {@code #RRGGBB} or {@code #AARRGGBB}.
+     * @return the parsed color.
+     * @throws IllegalArgumentException if color is not a valid hex color.
+     */
+    @ColorInt
+    public static int parse(@NonNull CharSequence color) {
+        if (color.length() == 0 || color.charAt(0) != '#') throw unknown(color, 0, color.length());
+        return parse(color, 0, color.length());
+    }
+
+    /**
+     * Parse the characters of s from start (inclusive) to end (exclusive), the leading '#' is optional.
+     *
+     * @throws IllegalArgumentException if the range is not a valid hex color.
+     */
+    @ColorInt
+    public static int parse(@NonNull CharSequence s, int start, int end) {
+        long v = parseOrInvalid(s, start, end);
+        if (v < 0) throw unknown(s, start, end);
+        return (int) v;
+    }
+
+    /**
+     * @return true if the whole sequence is a valid hex color.
+     */
+    public static boolean isHex(@NonNull CharSequence s) {
+        return s.length() > 0 && s.charAt(0) == '#' && parseOrInvalid(s, 0, s.length()) >= 0;
+    }
+
+    /**
+     * Parse every color of src into dst starting at offset.
+     *
+     * @return number of colors written, src.length unless dst is too small.
+     * @throws IllegalArgumentException if a string is not a valid hex color.
+     */
+    public static int parseAll(@NonNull String[] src, @NonNull @ColorInt int[] dst, int offset) {
+        int n = Math.min(src.length, dst.length - offset);
+        for (int i = 0; i < n; i++) dst[offset + i] = parse(src[i]);
+        return n;
+    }
+
+    /**
+     * Parse the colors of src into dst starting at offset. Colors are separated by white space,
+     * ',' or ';' and the leading '#' is optional.<br>
+     * The position of src is moved past the last parsed color, so a large buffer can be parsed
+     * in several calls with a small dst.
+     *
+     * @return number of colors written.
+     * @throws IllegalArgumentException if a token is not a valid hex color.
+     */
+    public static int parseAll(@NonNull CharBuffer src, @NonNull @ColorInt int[] dst, int offset) {
+        int n = offset, p = src.position(), limit = src.limit();
+        while (n < dst.length) {
+            while (p < limit && isSeparator(src.get(p))) p++;
+            if (p == limit) break;
+            int start = p;
+            while (p < limit && !isSeparator(src.get(p))) p++;
+            dst[n++] = parse(src, start - src.position(), p - src.position());
+            src.position(p);
+        }
+        while (p < limit && isSeparator(src.get(p))) p++;
+        src.position(p);
+        return n - offset;
+    }
+
+    static boolean isSeparator(char c) {
+        return c == ' ' || c == ',' || c == ';' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    /**
+     * @return the color as a non negative long, or -1 if the range is not a valid hex color.
+     */
+    static long parseOrInvalid(CharSequence s, int start, int end) {
+        if (start < end && s.charAt(start) == '#') start++;
+        int length = end - start;
+        if (length != 3 && length != 6 && length != 8) return -1;
+        int v = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            int d = c < 128 ? DIGITS[c] : -1;
+            if (d < 0) return -1;
+            v = v << 4 | d;
+        }
+        if (length == 3)
+            v = 0xff000000 | (v >> 8 & 0xf) * 0x110000 | (v >> 4 & 0xf) * 0x1100 | (v & 0xf) * 0x11;
+        else if (length == 6) v |= 0xff000000;
+        return v & 0xffffffffL;
+    }
+
+    private static IllegalArgumentException unknown(CharSequence s, int start, int end) {
+        return new IllegalArgumentException("Unknown color: " + s.subSequence(start, end));
+    }
+
+    /**
+     * Bounded cache of recently parsed colors, useful when the same strings are parsed many times
+     * (e.g. colors coming from a server config).<br>
+     * It is a direct mapped table: a lookup is one hash and one comparison, and a new string simply
+     * replaces the one in its slot. <b>Not thread safe.</b>
+     */
+    public static final class Cache {
+        private final String[] keys;
+        private final int[] values;
+        private final int mask;
+
+        /**
+         * @param capacity number of entries, rounded up to a power of two.
+         */
+        public Cache(int capacity) {
+            int n = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+            keys = new String[n];
+            values = new int[n];
+            mask = n - 1;
+        }
+
+        /**
+         * Same as {@link HexColors#parse(CharSequence)} using the cache.
+         */
+        @ColorInt
+        public int parse(@NonNull CharSequence color) {
+            int h = hash(color), slot = (h ^ h >>> 16) & mask;
+            String key = keys[slot];
+            if (key != null && (key == color || key.contentEquals(color))) return values[slot];
+            int v = HexColors.parse(color);
+            if (color instanceof String) {
+                keys[slot] = (String) color;
+                values[slot] = v;
+            }
+            return v;
+        }
+
+        public void clear() {
+            for (int i = 0; i < keys.length; i++) keys[i] = null;
+        }
+
+        public int capacity() {
+            return keys.length;
+        }
+
+        private static int hash(CharSequence s) {
+            if (s instanceof String) return s.hashCode();
+            int h = 0;
+            for (int i = 0, n = s.length(); i < n; i++) h = 31 * h + s.charAt(i);
+            return h;
+        }
+    }
+}
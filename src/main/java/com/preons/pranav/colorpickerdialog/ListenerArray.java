@@ -0,0 +1,72 @@
+package com.preons.pranav.colorpickerdialog;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Copy-on-write array of listeners of one type.<br>
+ * Adding or removing copies the array, while {@link ListenerArray#array()} returns the current
+ * array without copying, so dispatching is a plain loop that allocates nothing, and a listener
+ * added or removed during a dispatch only affects the next one.
+ *
+ * @param <T> type of the listeners
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+final class ListenerArray<T> {
+
+    private volatile T[] items;
+
+    /**
+     * @param empty empty array of the listener type, shared as the array of an empty {@link ListenerArray}.
+     */
+    ListenerArray(@NonNull T[] empty) {
+        if (empty.length != 0) throw new IllegalArgumentException("Not empty");
+        items = empty;
+    }
+
+    /**
+     * @return the current listeners, <b>must not be modified</b>.
+     */
+    @NonNull
+    T[] array() {
+        return items;
+    }
+
+    int size() {
+        return items.length;
+    }
+
+    boolean isEmpty() {
+        return items.length == 0;
+    }
+
+    synchronized void add(@NonNull T listener) {
+        T[] a = items;
+        T[] b = Arrays.copyOf(a, a.length + 1);
+        b[a.length] = listener;
+        items = b;
+    }
+
+    /**
+     * Remove every occurrence of listener.
+     *
+     * @return true if listener was found.
+     */
+    synchronized boolean remove(@NonNull T listener) {
+        T[] a = items;
+        int n = 0;
+        for (T t : a) if (t != listener) n++;
+        if (n == a.length) return false;
+        T[] b = Arrays.copyOf(a, n);
+        for (int i = 0, j = 0; i < a.length; i++) if (a[i] != listener) b[j++] = a[i];
+        items = b;
+        return true;
+    }
+
+    synchronized void clear() {
+        items = Arrays.copyOf(items, 0);
+    }
+}
@@ -0,0 +1,101 @@
+package com.preons.pranav.colorpickerdialog;
+
+import androidx.annotation.NonNull;
+
+import com.preons.pranav.colorpickerdialog.ColorDialogBuilder.DialogListener;
+import com.preons.pranav.colorpickerdialog.ColorDialogBuilder.Listener;
+
+/**
+ * The listeners of a {@link ColorDialogBuilder} sorted by type when they are registered, so a
+ * click only walks the listeners of the current {@link ColorDialogBuilder.Mode} with no
+ * <b>instanceof</b> check. A listener implementing several types, e.g. {@link Listener.Events},
+ * is in every matching {@link ListenerArray}.
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+final class ListenerRegistry {
+
+    final ListenerArray<Listener.Tap> tap = new ListenerArray<>(new Listener.Tap[0]);
+    final ListenerArray<Listener.SingleSelection> single = new ListenerArray<>(new Listener.SingleSelection[0]);
+    final ListenerArray<Listener.MultiSelection> multi = new ListenerArray<>(new Listener.MultiSelection[0]);
+    final ListenerArray<Listener.SelectionDelta> delta = new ListenerArray<>(new Listener.SelectionDelta[0]);
+    final ListenerArray<Listener.SelectionCommit> commit = new ListenerArray<>(new Listener.SelectionCommit[0]);
+    final ListenerArray<Listener.SecondarySelection> secondary = new ListenerArray<>(new Listener.SecondarySelection[0]);
+    final ListenerArray<DialogListener.Show> show = new ListenerArray<>(new DialogListener.Show[0]);
+    final ListenerArray<DialogListener.Dismiss> dismiss = new ListenerArray<>(new DialogListener.Dismiss[0]);
+    final ListenerArray<DialogListener.Cancel> cancel = new ListenerArray<>(new DialogListener.Cancel[0]);
+    /**
+     * Every selection listener, whatever its type.
+     */
+    private final ListenerArray<Listener> all = new ListenerArray<>(new Listener[0]);
+    /**
+     * Registered as {@link ListenerRegistry#delta} and {@link ListenerRegistry#commit} listener
+     * while there are {@link Listener.MultiSelection} listeners.
+     */
+    private final Legacy legacy;
+
+    ListenerRegistry(@NonNull Legacy legacy) {
+        this.legacy = legacy;
+    }
+
+    void add(@NonNull Listener listener) {
+        all.add(listener);
+        if (listener instanceof Listener.Tap) tap.add((Listener.Tap) listener);
+        if (listener instanceof Listener.SingleSelection) single.add((Listener.SingleSelection) listener);
+        if (listener instanceof Listener.MultiSelection) {
+            if (multi.isEmpty()) {
+                delta.add(legacy);
+                commit.add(legacy);
+            }
+            multi.add((Listener.MultiSelection) listener);
+        }
+        if (listener instanceof Listener.SecondarySelection)
+            secondary.add((Listener.SecondarySelection) listener);
+        if (listener instanceof Listener.SelectionDelta) delta.add((Listener.SelectionDelta) listener);
+        if (listener instanceof Listener.SelectionCommit) commit.add((Listener.SelectionCommit) listener);
+    }
+
+    void remove(@NonNull Listener listener) {
+        if (!all.remove(listener)) return;
+        if (listener instanceof Listener.Tap) tap.remove((Listener.Tap) listener);
+        if (listener instanceof Listener.SingleSelection) single.remove((Listener.SingleSelection) listener);
+        if (listener instanceof Listener.MultiSelection) {
+            multi.remove((Listener.MultiSelection) listener);
+            if (multi.isEmpty()) {
+                delta.remove(legacy);
+                commit.remove(legacy);
+            }
+        }
+        if (listener instanceof Listener.SecondarySelection)
+            secondary.remove((Listener.SecondarySelection) listener);
+        if (listener instanceof Listener.SelectionDelta) delta.remove((Listener.SelectionDelta) listener);
+        if (listener instanceof Listener.SelectionCommit) commit.remove((Listener.SelectionCommit) listener);
+    }
+
+    void add(@NonNull DialogListener listener) {
+        if (listener instanceof DialogListener.Show) show.add((DialogListener.Show) listener);
+        if (listener instanceof DialogListener.Dismiss) dismiss.add((DialogListener.Dismiss) listener);
+        if (listener instanceof DialogListener.Cancel) cancel.add((DialogListener.Cancel) listener);
+    }
+
+    void remove(@NonNull DialogListener listener) {
+        if (listener instanceof DialogListener.Show) show.remove((DialogListener.Show) listener);
+        if (listener instanceof DialogListener.Dismiss) dismiss.remove((DialogListener.Dismiss) listener);
+        if (listener instanceof DialogListener.Cancel) cancel.remove((DialogListener.Cancel) listener);
+    }
+
+    /**
+     * @return true if no selection listener is registered.
+     */
+    boolean isEmpty() {
+        return all.isEmpty();
+    }
+
+    /**
+     * Adapter calling the {@link Listener.MultiSelection} listeners from the delta and commit events.
+     */
+    interface Legacy extends Listener.SelectionDelta, Listener.SelectionCommit {
+    }
+}
@@ -0,0 +1,60 @@
+package com.preons.pranav.colorpickerdialog;
+
+import androidx.annotation.IntDef;
+
+/**
+ * {@link Timings} that also receive counters of the work done by {@link ColorDialogBuilder}, e.g. to
+ * check on user devices how many swatch views a dialog creates and how many it reuses.
+ * <p>
+ * Every counter is reported once per event with the count of that event, from the main thread.
+ * Nothing is measured or counted while no metrics are set, the builder only checks a field.
+ * </p>
+ * <p>
+ * Independently of the metrics, the phases are emitted as {@link android.os.Trace} sections
+ * named <i>ColorDialog#phase</i> on API 18 and above, so they show up in system traces.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ * @see ColorDialogBuilder#setMetrics(Metrics)
+ */
+public interface Metrics extends Timings {
+
+    /**
+     * Swatches bound to a color by a build of the grid, or by the
+     * {@link ColorDialogBuilder#VIRTUAL} renderer as they scroll in.
+     */
+    int SWATCHES_BOUND = 1;
+
+    /**
+     * Swatch views created because none could be reused.
+     */
+    int VIEWS_CREATED = 2;
+
+    /**
+     * Swatch views reused from the pool or recycled by the {@link ColorDialogBuilder#VIRTUAL} renderer.
+     */
+    int VIEWS_REUSED = 3;
+
+    /**
+     * Colors updated by {@link ColorDialogBuilder#refresh()} without rebuilding the grid.
+     */
+    int SWATCHES_REFRESHED = 4;
+
+    /**
+     * Number of colors selected when the selection of {@link ColorDialogBuilder.Mode#MULTI_SELECTION}
+     * is committed.
+     */
+    int SELECTION_SIZE = 5;
+
+    /**
+     * @param counter the counter
+     * @param count   the count of one event
+     */
+    void onCount(@Counter int counter, int count);
+
+    @IntDef(value = {SWATCHES_BOUND, VIEWS_CREATED, VIEWS_REUSED, SWATCHES_REFRESHED, SELECTION_SIZE})
+    @interface Counter {
+    }
+}
@@ -0,0 +1,480 @@
+package com.preons.pranav.colorpickerdialog;
+
+import java.util.Arrays;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * {@link Palette} is a growable list of colors stored as primitive <b>int</b>s.<br>
+ * It is the internal storage of {@link ColorDialogBuilder} and replaces the
+ * boxed {@code ArrayList<Integer>}, so adding, reading and updating colors never boxes.
+ * <p>
+ * A slot can be <i>empty</i>, which is the equivalent of a {@code null} entry in the old list.
+ * Empty slots are tracked in a bitmap next to the values.
+ * </p>
+ * <p>
+ * Every mutation is recorded until {@link Palette#clearDirty()}: a change of a single slot marks
+ * its index dirty, while adding or removing slots marks the whole structure as changed. This lets
+ * {@link ColorDialogBuilder#refresh()} update only the swatches that changed.
+ * </p>
+ * <p>
+ * The colors can be shared with other palettes through a {@link PaletteSnapshot}: a palette set
+ * from a snapshot, or that just took one, uses the arrays of the snapshot and copies them on its
+ * next change. Its {@link Palette#version()} identifies its colors.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class Palette {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int[] EMPTY_VALUES = {};
+    private static final long[] EMPTY_BITS = {};
+
+    /**
+     * The colors, only the first {@link Palette#size} are in use.
+     */
+    private int[] values;
+    /**
+     * Bit <i>i</i> is set when slot <i>i</i> is empty.
+     */
+    private long[] empty;
+    private int size;
+    private int emptyCount;
+
+    /**
+     * Indices changed since the last {@link Palette#clearDirty()}, unused once the structure changed.
+     */
+    private final Selection dirty = new Selection();
+    private boolean structureChanged;
+
+    /**
+     * The snapshot whose arrays are used, they must be copied before any change.
+     */
+    @Nullable
+    private PaletteSnapshot shared;
+    /**
+     * Version of the colors, 0 until {@link Palette#version()} assigns one after a change.
+     */
+    private long version;
+
+    /**
+     * Notified of every change, e.g. {@link PaletteIndex} to stay up to date.
+     */
+    @Nullable
+    Observer observer;
+
+    public Palette() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity initial number of slots to reserve.
+     */
+    public Palette(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        values = capacity == 0 ? EMPTY_VALUES : new int[capacity];
+        empty = capacity == 0 ? EMPTY_BITS : new long[words(capacity)];
+    }
+
+    /**
+     * Create a {@link Palette} holding a copy of the given colors.
+     */
+    @NonNull
+    public static Palette of(@ColorInt int... colors) {
+        Palette palette = new Palette(colors.length);
+        palette.addAll(colors, 0, colors.length);
+        return palette;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * @return number of slots, including the empty ones.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of empty slots.
+     */
+    public int nullCount() {
+        return emptyCount;
+    }
+
+    /**
+     * @return number of slots holding a color.
+     */
+    public int colorCount() {
+        return size - emptyCount;
+    }
+
+    /**
+     * @return true if the slot at index has no color.
+     */
+    public boolean isNull(int index) {
+        checkIndex(index);
+        return (empty[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return the color at index, or {@link android.graphics.Color#TRANSPARENT} (0) for an empty slot.
+     */
+    @ColorInt
+    public int get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * Replace the color at index, clearing the empty flag of the slot.
+     *
+     * @return true if the slot changed.
+     */
+    public boolean set(int index, @ColorInt int color) {
+        checkIndex(index);
+        boolean wasNull = (empty[index >>> 6] & (1L << index)) != 0;
+        if (!wasNull && values[index] == color) return false;
+        modify(size);
+        if (wasNull) clearNull(index);
+        values[index] = color;
+        markDirty(index);
+        if (observer != null) observer.onSet(index);
+        return true;
+    }
+
+    /**
+     * Mark the slot at index as empty.
+     *
+     * @return true if the slot changed.
+     */
+    public boolean setNull(int index) {
+        checkIndex(index);
+        long bit = 1L << index;
+        int w = index >>> 6;
+        if ((empty[w] & bit) != 0) return false;
+        modify(size);
+        empty[w] |= bit;
+        values[index] = 0;
+        emptyCount++;
+        markDirty(index);
+        if (observer != null) observer.onSet(index);
+        return true;
+    }
+
+    public void add(@ColorInt int color) {
+        modify(size + 1);
+        values[size++] = color;
+        structureChanged = true;
+        if (observer != null) observer.onAppend(size - 1);
+    }
+
+    /**
+     * Append an empty slot.
+     */
+    public void addNull() {
+        modify(size + 1);
+        int index = size++;
+        values[index] = 0;
+        empty[index >>> 6] |= 1L << index;
+        emptyCount++;
+        structureChanged = true;
+        if (observer != null) observer.onAppend(index);
+    }
+
+    /**
+     * Append length colors of src starting at offset.
+     */
+    public void addAll(@NonNull @ColorInt int[] src, int offset, int length) {
+        checkRange(src.length, offset, length);
+        if (length == 0) return;
+        modify(size + length);
+        System.arraycopy(src, offset, values, size, length);
+        size += length;
+        structureChanged = true;
+        if (observer != null) observer.onAppend(size - length);
+    }
+
+    /**
+     * Replace the content of this palette with length colors of src starting at offset.
+     */
+    public void setAll(@NonNull @ColorInt int[] src, int offset, int length) {
+        clear();
+        addAll(src, offset, length);
+    }
+
+    /**
+     * Replace the content of this palette with the content of other.
+     */
+    public void setAll(@NonNull Palette other) {
+        if (other == this) return;
+        if (other.shared != null) {
+            setAll(other.shared);
+            return;
+        }
+        clear();
+        modify(other.size);
+        System.arraycopy(other.values, 0, values, 0, other.size);
+        System.arraycopy(other.empty, 0, empty, 0, words(other.size));
+        size = other.size;
+        emptyCount = other.emptyCount;
+        structureChanged = true;
+        if (observer != null) observer.onReset();
+    }
+
+    /**
+     * Use the colors of snapshot without copying them, they are copied on the next change.
+     */
+    public void setAll(@NonNull PaletteSnapshot snapshot) {
+        if (shared == snapshot) return;
+        values = snapshot.values;
+        empty = snapshot.empty;
+        size = snapshot.size;
+        emptyCount = snapshot.emptyCount;
+        shared = snapshot;
+        version = snapshot.version();
+        structureChanged = true;
+        if (observer != null) observer.onReset();
+    }
+
+    /**
+     * @return an immutable snapshot of the colors, the same one as long as the palette does not change.
+     */
+    @NonNull
+    public PaletteSnapshot snapshot() {
+        if (shared != null) return shared;
+        int words = words(size);
+        // the arrays are then shared with the snapshot, the next change copies them
+        values = values.length == size ? values : Arrays.copyOf(values, size);
+        empty = empty.length == words ? empty : Arrays.copyOf(empty, words);
+        return shared = new PaletteSnapshot(values, empty, size, emptyCount, version());
+    }
+
+    /**
+     * @return the version of the colors: a new one after every change, the one of the
+     * {@link PaletteSnapshot} when set from or sharing a snapshot.
+     */
+    public long version() {
+        if (version == 0) version = PaletteSnapshot.nextVersion();
+        return version;
+    }
+
+    /**
+     * Remove every slot, the capacity is kept unless the colors were shared.
+     */
+    public void clear() {
+        if (size == 0) return;
+        if (shared != null) {
+            values = EMPTY_VALUES;
+            empty = EMPTY_BITS;
+            shared = null;
+        } else Arrays.fill(empty, 0, words(size), 0);
+        version = 0;
+        structureChanged = true;
+        size = 0;
+        emptyCount = 0;
+        if (observer != null) observer.onReset();
+    }
+
+    /**
+     * Remove the empty slots, shifting the following colors to the left.
+     */
+    public void compact() {
+        if (emptyCount == 0) return;
+        modify(size);
+        int w = 0;
+        for (int r = 0; r < size; r++)
+            if ((empty[r >>> 6] & (1L << r)) == 0) values[w++] = values[r];
+        Arrays.fill(empty, 0, words(size), 0);
+        size = w;
+        emptyCount = 0;
+        structureChanged = true;
+        if (observer != null) observer.onReset();
+    }
+
+    /**
+     * @return true if the palette changed since the last {@link Palette#clearDirty()}.
+     */
+    public boolean isDirty() {
+        return structureChanged || !dirty.isEmpty();
+    }
+
+    /**
+     * @return true if slots were added or removed since the last {@link Palette#clearDirty()},
+     * in that case every index has to be considered dirty.
+     */
+    public boolean isStructureChanged() {
+        return structureChanged;
+    }
+
+    /**
+     * @return the first dirty index at or after from, or -1.
+     */
+    public int nextDirty(int from) {
+        if (structureChanged) return from < size ? Math.max(from, 0) : -1;
+        return dirty.nextSelected(from);
+    }
+
+    /**
+     * @return number of dirty indices.
+     */
+    public int dirtyCount() {
+        return structureChanged ? size : dirty.count();
+    }
+
+    /**
+     * Forget the recorded changes, called once they are drawn.
+     */
+    public void clearDirty() {
+        dirty.clear();
+        structureChanged = false;
+    }
+
+    private void markDirty(int index) {
+        if (structureChanged) return;
+        if (dirty.size() < size) dirty.resize(size);
+        dirty.set(index, true);
+    }
+
+    /**
+     * Copy the colors into dst skipping the empty slots.
+     * If dst is too small only the first dst.length colors are copied.
+     *
+     * @return number of colors written to dst.
+     */
+    public int toArray(@NonNull @ColorInt int[] dst) {
+        if (emptyCount == 0) {
+            int n = Math.min(size, dst.length);
+            System.arraycopy(values, 0, dst, 0, n);
+            return n;
+        }
+        int n = 0;
+        for (int i = 0; i < size && n < dst.length; i++)
+            if ((empty[i >>> 6] & (1L << i)) == 0) dst[n++] = values[i];
+        return n;
+    }
+
+    /**
+     * @return a boxed copy where empty slots are {@code null}, used by the legacy {@link Integer} API.
+     */
+    @NonNull
+    public Integer[] toBoxedArray() {
+        Integer[] integers = new Integer[size];
+        for (int i = 0; i < size; i++)
+            integers[i] = (empty[i >>> 6] & (1L << i)) != 0 ? null : values[i];
+        return integers;
+    }
+
+    /**
+     * @return index of the first slot holding color, or -1.
+     */
+    public int indexOf(@ColorInt int color) {
+        for (int i = 0; i < size; i++)
+            if (values[i] == color && (empty[i >>> 6] & (1L << i)) == 0) return i;
+        return -1;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= values.length) {
+            if (shared != null) own(values.length);
+            return;
+        }
+        own(Math.max(capacity, Math.max(DEFAULT_CAPACITY, values.length + (values.length >> 1))));
+    }
+
+    /**
+     * Copy the colors to arrays of n slots owned by this palette.
+     */
+    private void own(int n) {
+        values = Arrays.copyOf(values, n);
+        if (words(n) > empty.length || shared != null) empty = Arrays.copyOf(empty, Math.max(words(n), empty.length));
+        shared = null;
+    }
+
+    /**
+     * Prepare a change: own the arrays with room for capacity slots, and drop the version.
+     */
+    private void modify(int capacity) {
+        ensureCapacity(capacity);
+        version = 0;
+    }
+
+    private void clearNull(int index) {
+        empty[index >>> 6] &= ~(1L << index);
+        emptyCount--;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    private static void checkRange(int length, int offset, int count) {
+        if (offset < 0 || count < 0 || offset > length - count)
+            throw new IndexOutOfBoundsException("offset: " + offset + ", count: " + count + ", length: " + length);
+    }
+
+    /**
+     * Receives the changes of a {@link Palette}.
+     */
+    interface Observer {
+        /**
+         * The color of the slot at index changed, or the slot became empty.
+         */
+        void onSet(int index);
+
+        /**
+         * Slots were appended from index from to {@link Palette#size()}.
+         */
+        void onAppend(int from);
+
+        /**
+         * Slots were removed or replaced, every index may have changed.
+         */
+        void onReset();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Palette)) return false;
+        Palette p = (Palette) o;
+        if (size != p.size || emptyCount != p.emptyCount) return false;
+        for (int i = 0; i < size; i++)
+            if (values[i] != p.values[i]) return false;
+        for (int w = 0, n = words(size); w < n; w++)
+            if (empty[w] != p.empty[w]) return false;
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = size;
+        for (int i = 0; i < size; i++) h = 31 * h + values[i];
+        return h;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) b.append(", ");
+            if (isNull(i)) b.append("null");
+            else b.append('#').append(Integer.toHexString(values[i]));
+        }
+        return b.append(']').toString();
+    }
+}
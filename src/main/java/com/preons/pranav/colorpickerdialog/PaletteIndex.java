@@ -0,0 +1,202 @@
+package com.preons.pranav.colorpickerdialog;
+
+import java.util.Arrays;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+
+/**
+ * Nearest color index of a {@link Palette} in OKLab space ("snap to palette").<br>
+ * The colors are bucketed in a uniform grid of OKLab cells, a query only visits the cells
+ * around the query color, growing the searched region until no unvisited cell can hold a
+ * nearer color, so it does not depend on the size of the palette.
+ * <p>
+ * The index attaches itself to the palette and is updated incrementally: setting a color
+ * moves a single entry, appending colors inserts only the new ones. Removing slots (e.g.
+ * {@link Palette#compact()}) rebuilds it. Empty slots are never returned.
+ * <b>Not thread safe.</b>
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ * @see ColorSpaces
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class PaletteIndex implements Palette.Observer {
+
+    /**
+     * Edge of a cell, L spans 16 cells and a, b span 12 cells each.
+     */
+    private static final float CELL = 1 / 16f;
+    private static final float AB_MIN = -0.375f;
+    private static final int NL = 16, NA = 12, NB = 12;
+    private static final int NONE = -1;
+
+    private final Palette palette;
+    /**
+     * First entry of every cell, then each entry links to the next and previous one of its cell.
+     */
+    private final int[] head = new int[NL * NA * NB];
+    private int[] next = new int[0], prev = new int[0], cell = new int[0];
+    private float[] lab = new float[0];
+    private int size;
+
+    /**
+     * Scratch of the queries: the query color in OKLab, the distances of the k best and the best index.
+     */
+    private final float[] q = new float[3];
+    private float[] kd = new float[0];
+    private int kIndex;
+
+    /**
+     * Index palette, replacing the index it had before.
+     */
+    public PaletteIndex(@NonNull Palette palette) {
+        this.palette = palette;
+        palette.observer = this;
+        onReset();
+    }
+
+    /**
+     * Stop following the changes of the palette.
+     */
+    public void detach() {
+        if (palette.observer == this) palette.observer = null;
+    }
+
+    /**
+     * @return number of indexed colors.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return index in the palette of the color nearest to color, or -1 if the palette has no color.
+     */
+    public int nearest(@ColorInt int color) {
+        return nearest(color, 1, null) == 0 ? -1 : kIndex;
+    }
+
+    /**
+     * Find the k colors nearest to color, nearest first.
+     *
+     * @param dst receives the indices in the palette, may be null when k is 1
+     * @return number of indices found, less than k if the palette has less colors.
+     */
+    public int nearest(@ColorInt int color, int k, int[] dst) {
+        if (k < 1 || size == 0) return 0;
+        if (dst == null && k != 1) throw new IllegalArgumentException("dst is required for k > 1");
+        if (dst != null && dst.length < k) throw new IllegalArgumentException("dst.length < k");
+        if (kd.length < k) kd = new float[k];
+        ColorSpaces.toOklab(color, q);
+        int ql = clamp((int) (q[0] / CELL), NL), qa = clamp((int) ((q[1] - AB_MIN) / CELL), NA),
+                qb = clamp((int) ((q[2] - AB_MIN) / CELL), NB);
+        int found = 0, max = Math.max(NL, Math.max(NA, NB));
+        for (int r = 0; r < max; r++) {
+            // visit the cells at exactly r cells from the query cell
+            for (int l = Math.max(ql - r, 0); l <= Math.min(ql + r, NL - 1); l++)
+                for (int a = Math.max(qa - r, 0); a <= Math.min(qa + r, NA - 1); a++) {
+                    int c = (l * NA + a) * NB;
+                    if (Math.abs(l - ql) == r || Math.abs(a - qa) == r) {
+                        for (int b = Math.max(qb - r, 0); b <= Math.min(qb + r, NB - 1); b++)
+                            found = visit(head[c + b], k, found, dst);
+                    } else {
+                        if (qb - r >= 0) found = visit(head[c + qb - r], k, found, dst);
+                        if (qb + r < NB) found = visit(head[c + qb + r], k, found, dst);
+                    }
+                }
+            // every unvisited color is at least r cells away on some axis
+            float bound = r * CELL;
+            if (found == k && kd[k - 1] <= bound * bound) break;
+        }
+        return found;
+    }
+
+    private int visit(int e, int k, int found, int[] dst) {
+        for (; e != NONE; e = next[e]) found = offer(e, k, found, dst);
+        return found;
+    }
+
+    /**
+     * Insert entry e in the sorted k best if it is nearer than the k-th.
+     */
+    private int offer(int e, int k, int found, int[] dst) {
+        float d = ColorSpaces.distanceSquared(lab, 3 * e, q[0], q[1], q[2]);
+        if (found == k && d >= kd[k - 1]) return found;
+        int i = found == k ? k - 1 : found++;
+        while (i > 0 && kd[i - 1] > d) {
+            kd[i] = kd[i - 1];
+            if (dst != null) dst[i] = dst[i - 1];
+            i--;
+        }
+        kd[i] = d;
+        if (dst != null) dst[i] = e;
+        if (i == 0) kIndex = e;
+        return found;
+    }
+
+    @Override
+    public void onSet(int index) {
+        remove(index);
+        if (!palette.isNull(index)) insert(index);
+    }
+
+    @Override
+    public void onAppend(int from) {
+        ensure(palette.size());
+        for (int i = from; i < palette.size(); i++) {
+            cell[i] = NONE;
+            if (!palette.isNull(i)) insert(i);
+        }
+    }
+
+    @Override
+    public void onReset() {
+        Arrays.fill(head, NONE);
+        size = 0;
+        int n = palette.size();
+        ensure(n);
+        Arrays.fill(cell, 0, n, NONE);
+        onAppend(0);
+    }
+
+    private void insert(int i) {
+        ColorSpaces.toOklab(palette.get(i), q);
+        lab[3 * i] = q[0];
+        lab[3 * i + 1] = q[1];
+        lab[3 * i + 2] = q[2];
+        int c = (clamp((int) (q[0] / CELL), NL) * NA + clamp((int) ((q[1] - AB_MIN) / CELL), NA)) * NB
+                + clamp((int) ((q[2] - AB_MIN) / CELL), NB);
+        cell[i] = c;
+        prev[i] = NONE;
+        next[i] = head[c];
+        if (head[c] != NONE) prev[head[c]] = i;
+        head[c] = i;
+        size++;
+    }
+
+    private void remove(int i) {
+        int c = cell[i];
+        if (c == NONE) return;
+        if (prev[i] != NONE) next[prev[i]] = next[i];
+        else head[c] = next[i];
+        if (next[i] != NONE) prev[next[i]] = prev[i];
+        cell[i] = NONE;
+        size--;
+    }
+
+    private void ensure(int n) {
+        if (n <= cell.length) return;
+        int m = Math.max(n, cell.length * 2);
+        next = Arrays.copyOf(next, m);
+        prev = Arrays.copyOf(prev, m);
+        cell = Arrays.copyOf(cell, m);
+        lab = Arrays.copyOf(lab, 3 * m);
+    }
+
+    private static int clamp(int v, int n) {
+        return v < 0 ? 0 : v >= n ? n - 1 : v;
+    }
+}
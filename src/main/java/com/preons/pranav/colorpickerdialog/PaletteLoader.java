@@ -0,0 +1,623 @@
+package com.preons.pranav.colorpickerdialog;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * {@link PaletteLoader} streams palette files from an {@link InputStream} without reading the whole
+ * file into memory first. It supports GIMP {@code .gpl}, Adobe {@code .aco} / {@code .ase},
+ * plain hex lists and a compact binary format that can be memory-mapped.
+ * <p>
+ * The binary format holds the colors as an <b>int</b> array plus a hierarchy index for secondary
+ * colors, so large palettes load with one bulk read. All values are big endian:
+ * </p>
+ * <pre>
+ * int   magic    'CPAL'
+ * int   version  1
+ * int   count    number of colors
+ * int   rows     number of rows of the hierarchy, 0 for a flat palette
+ * int[] offsets  rows + 1 offsets, row r is colors[offsets[r]] until colors[offsets[r + 1]]
+ * int[] colors   count colors
+ * </pre>
+ * This class only depends on the JDK so it can be used and tested on the JVM.
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class PaletteLoader {
+
+    public static final int GPL = 1;
+    public static final int ACO = 2;
+    public static final int ASE = 3;
+    public static final int HEX = 4;
+    public static final int BINARY = 5;
+
+    private static final int MAGIC = 0x4350414c; // CPAL
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+
+    private PaletteLoader() {
+    }
+
+    /**
+     * Load a palette, detecting its format from the first bytes of the stream.
+     * The stream is not closed.
+     */
+    @NonNull
+    public static Result load(@NonNull InputStream in) throws IOException {
+        Source s = new Source(in);
+        return load(s, detect(s));
+    }
+
+    /**
+     * Load a palette of the given format. The stream is not closed.
+     *
+     * @param format one of {@link PaletteLoader#GPL}, {@link PaletteLoader#ACO},
+     *               {@link PaletteLoader#ASE}, {@link PaletteLoader#HEX} or {@link PaletteLoader#BINARY}.
+     */
+    @NonNull
+    public static Result load(@NonNull InputStream in, @Format int format) throws IOException {
+        return load(new Source(in), format);
+    }
+
+    private static Result load(Source s, int format) throws IOException {
+        switch (format) {
+            case GPL:
+                return readGpl(s);
+            case ACO:
+                return readAco(s);
+            case ASE:
+                return readAse(s);
+            case HEX:
+                return readHex(s);
+            case BINARY:
+                return readBinary(s);
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    @Format
+    private static int detect(Source s) throws IOException {
+        int b0 = s.peek(0), b1 = s.peek(1), b2 = s.peek(2), b3 = s.peek(3);
+        int head = b0 << 24 | b1 << 16 | b2 << 8 | b3;
+        if (b3 >= 0 && head == MAGIC) return BINARY;
+        if (b0 == 'A' && b1 == 'S' && b2 == 'E' && b3 == 'F') return ASE;
+        if (b0 == 'G' && b1 == 'I' && b2 == 'M' && b3 == 'P') return GPL;
+        if (b0 == 0 && (b1 == 1 || b1 == 2)) return ACO;
+        return HEX;
+    }
+
+    /**
+     * Map a file of the binary format and read it with one bulk copy.
+     */
+    @NonNull
+    public static Result map(@NonNull File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        }
+    }
+
+    /**
+     * Read the binary format from a buffer, e.g. a {@link MappedByteBuffer}.
+     */
+    @NonNull
+    public static Result read(@NonNull ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER) throw new EOFException("Truncated palette");
+        IntBuffer ints = buffer.slice().asIntBuffer();
+        int count = header(ints.get(0), ints.get(1), ints.get(2), ints.get(3));
+        int rows = ints.get(3);
+        long need = 4L + (rows == 0 ? 0 : rows + 1) + count;
+        if (ints.limit() < need) throw new EOFException("Truncated palette");
+        ints.position(4);
+        int[] offsets = null;
+        if (rows > 0) {
+            offsets = new int[rows + 1];
+            ints.get(offsets);
+        }
+        int[] colors = new int[count];
+        ints.get(colors);
+        checkOffsets(offsets, rows, count);
+        return new Result(colors, count, offsets, rows);
+    }
+
+    /**
+     * Write a palette in the binary format. The stream is not closed.
+     */
+    public static void write(@NonNull Result palette, @NonNull OutputStream out) throws IOException {
+        int rows = palette.rows;
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(palette.count).putInt(rows);
+        if (rows > 0) buffer = put(buffer, palette.offsets, rows + 1, out);
+        buffer = put(buffer, palette.colors, palette.count, out);
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    private static ByteBuffer put(ByteBuffer buffer, int[] src, int length, OutputStream out) throws IOException {
+        for (int i = 0; i < length; i++) {
+            if (buffer.remaining() < 4) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putInt(src[i]);
+        }
+        return buffer;
+    }
+
+    private static int header(int magic, int version, int count, int rows) throws IOException {
+        if (magic != MAGIC) throw new IOException("Not a binary palette");
+        if (version != VERSION) throw new IOException("Unsupported version: " + version);
+        // every row holds at least one color
+        if (count < 0 || rows < 0 || rows > count || rows == Integer.MAX_VALUE)
+            throw new IOException("Corrupted palette");
+        return count;
+    }
+
+    /**
+     * Check that the offsets start at 0, increase and end at count.
+     */
+    private static void checkOffsets(@Nullable int[] offsets, int rows, int count) throws IOException {
+        if (offsets == null) return;
+        if (offsets[0] != 0 || offsets[rows] != count) throw new IOException("Corrupted palette");
+        for (int r = 0; r < rows; r++)
+            if (offsets[r] >= offsets[r + 1]) throw new IOException("Corrupted palette");
+    }
+
+    private static Result readBinary(Source s) throws IOException {
+        int magic = s.s32(), version = s.s32(), count = s.s32(), rows = s.s32();
+        header(magic, version, count, rows);
+        int[] offsets = rows > 0 ? readInts(s, rows + 1) : null;
+        int[] colors = readInts(s, count);
+        checkOffsets(offsets, rows, count);
+        return new Result(colors, count, offsets, rows);
+    }
+
+    /**
+     * Read n ints, the array grows as they are read so a corrupted count fails with an
+     * {@link EOFException} at the end of the stream instead of being allocated up front.
+     */
+    private static int[] readInts(Source s, int n) throws IOException {
+        int[] a = new int[Math.min(n, 1024)];
+        for (int i = 0; i < n; i++) {
+            if (i == a.length) a = Arrays.copyOf(a, (int) Math.min(n, 2L * a.length));
+            a[i] = s.s32();
+        }
+        return a;
+    }
+
+    /*
+     * GIMP palette: a "GIMP Palette" header, then "R G B name" lines,
+     * "Name:" / "Columns:" headers and '#' comments are ignored.
+     */
+    private static Result readGpl(Source s) throws IOException {
+        Ints colors = new Ints();
+        Line line = new Line();
+        if (!s.readLine(line) || !line.startsWith("GIMP Palette"))
+            throw new IOException("Not a GIMP palette");
+        int[] rgb = new int[3];
+        while (s.readLine(line)) {
+            int p = line.skipSpaces(0);
+            if (p == line.length) continue;
+            char c = line.chars[p];
+            if (c == '#' || !(c >= '0' && c <= '9')) continue;
+            for (int i = 0; i < 3; i++) {
+                p = line.skipSpaces(p);
+                int v = 0, start = p;
+                while (p < line.length && line.chars[p] >= '0' && line.chars[p] <= '9')
+                    v = v * 10 + line.chars[p++] - '0';
+                if (p == start || v > 255) throw new IOException("Invalid GIMP palette line: " + line);
+                rgb[i] = v;
+            }
+            colors.add(0xff000000 | rgb[0] << 16 | rgb[1] << 8 | rgb[2]);
+        }
+        return colors.toResult(null);
+    }
+
+    /*
+     * Hex list: colors separated by white space, ',' or ';' with an optional '#',
+     * lines starting with "//" are ignored.
+     */
+    private static Result readHex(Source s) throws IOException {
+        Ints colors = new Ints();
+        Line line = new Line();
+        CharBuffer chars = null;
+        while (s.readLine(line)) {
+            int p = line.skipSpaces(0);
+            if (p + 1 < line.length && line.chars[p] == '/' && line.chars[p + 1] == '/') continue;
+            if (chars == null || chars.array() != line.chars) chars = CharBuffer.wrap(line.chars);
+            while (p < line.length) {
+                while (p < line.length && HexColors.isSeparator(line.chars[p])) p++;
+                int start = p;
+                while (p < line.length && !HexColors.isSeparator(line.chars[p])) p++;
+                if (start == p) break;
+                long v = HexColors.parseOrInvalid(chars, start, p);
+                if (v < 0) throw new IOException("Invalid color in hex list: " + line);
+                colors.add((int) v);
+            }
+        }
+        return colors.toResult(null);
+    }
+
+    /*
+     * Adobe color swatch: version 1 section of (space, w, x, y, z) entries. A version 2 section,
+     * which only adds names, is read when the file has no version 1 section.
+     */
+    private static Result readAco(Source s) throws IOException {
+        int version = s.u16();
+        if (version != 1 && version != 2) throw new IOException("Not an ACO palette");
+        int count = s.u16();
+        Ints colors = new Ints(count);
+        for (int i = 0; i < count; i++) {
+            int space = s.u16(), w = s.u16(), x = s.u16(), y = s.u16(), z = s.u16();
+            if (version == 2) {
+                int nameLength = s.s32(); // UTF-16 chars, including the terminating 0
+                s.skip(2L * nameLength);
+            }
+            int color;
+            switch (space) {
+                case 0: // RGB
+                    color = 0xff000000 | (w >>> 8) << 16 | (x >>> 8) << 8 | y >>> 8;
+                    break;
+                case 1: // HSB
+                    color = ColorSpaces.hsvToRgb(w / 65535f * 360, x / 65535f, y / 65535f);
+                    break;
+                case 2: // CMYK, 0 is 100% ink
+                    color = cmykToRgb(1 - w / 65535f, 1 - x / 65535f, 1 - y / 65535f, 1 - z / 65535f);
+                    break;
+                case 7: // Lab
+                    color = labToRgb(w / 100f, (short) x / 100f, (short) y / 100f);
+                    break;
+                case 8: // Grayscale, 0..10000 of ink
+                    int g = Math.round(255 - Math.min(w, 10000) * 255 / 10000f);
+                    color = 0xff000000 | g << 16 | g << 8 | g;
+                    break;
+                default:
+                    continue;
+            }
+            colors.add(color);
+        }
+        return colors.toResult(null);
+    }
+
+    /*
+     * Adobe swatch exchange: blocks of group start, group end and color entries.
+     * Every group becomes a row of the hierarchy, a color outside a group is a row on its own.
+     */
+    private static Result readAse(Source s) throws IOException {
+        if (s.u8() != 'A' || s.u8() != 'S' || s.u8() != 'E' || s.u8() != 'F')
+            throw new IOException("Not an ASE palette");
+        s.u16();
+        s.u16();
+        int blocks = s.s32();
+        Ints colors = new Ints(), rows = new Ints();
+        // a row starts with the first color of a group, an empty group is no row
+        boolean grouped = false, inGroup = false, rowStarted = false;
+        for (int b = 0; b < blocks; b++) {
+            int type = s.u16();
+            long length = s.s32() & 0xffffffffL;
+            if (type == 0xc001) {
+                grouped = inGroup = true;
+                rowStarted = false;
+                s.skip(length);
+            } else if (type == 0xc002) {
+                inGroup = false;
+                s.skip(length);
+            } else if (type == 0x0001) {
+                long start = s.consumed;
+                int nameLength = s.u16();
+                s.skip(2L * nameLength);
+                int m0 = s.u8(), m1 = s.u8(), m2 = s.u8(), m3 = s.u8();
+                int color;
+                if (m0 == 'R' && m1 == 'G' && m2 == 'B')
+                    color = rgb(s.f32(), s.f32(), s.f32());
+                else if (m0 == 'C' && m1 == 'M' && m2 == 'Y' && m3 == 'K')
+                    color = cmykToRgb(s.f32(), s.f32(), s.f32(), s.f32());
+                else if (m0 == 'L' && m1 == 'A' && m2 == 'B')
+                    color = labToRgb(s.f32() * 100, s.f32(), s.f32());
+                else if (m0 == 'G' && m1 == 'r' && m2 == 'a' && m3 == 'y') {
+                    float g = s.f32();
+                    color = rgb(g, g, g);
+                } else color = 0;
+                s.skip(length - (s.consumed - start));
+                if (m0 == 'R' || m0 == 'C' || m0 == 'L' || m0 == 'G') {
+                    if (!inGroup || !rowStarted) rows.add(colors.size);
+                    rowStarted = inGroup;
+                    colors.add(color);
+                }
+            } else s.skip(length);
+        }
+        if (!grouped || rows.size == 0) return colors.toResult(null);
+        rows.add(colors.size);
+        return colors.toResult(rows);
+    }
+
+    private static int rgb(float r, float g, float b) {
+        return 0xff000000 | clamp(r) << 16 | clamp(g) << 8 | clamp(b);
+    }
+
+    private static int clamp(float v) {
+        return Math.max(0, Math.min(255, Math.round(v * 255)));
+    }
+
+    static int cmykToRgb(float c, float m, float y, float k) {
+        return rgb((1 - c) * (1 - k), (1 - m) * (1 - k), (1 - y) * (1 - k));
+    }
+
+    /**
+     * CIE Lab (D50, as used by Adobe) to sRGB.
+     */
+    static int labToRgb(float l, float a, float b) {
+        float fy = (l + 16) / 116f, fx = fy + a / 500f, fz = fy - b / 200f;
+        float x = .9642f * labF(fx), y = labF(fy), z = .8249f * labF(fz);
+        float r = 3.1338561f * x - 1.6168667f * y - .4906146f * z;
+        float g = -.9787684f * x + 1.9161415f * y + .0334540f * z;
+        float bl = .0719453f * x - .2289914f * y + 1.4052427f * z;
+        return rgb(gamma(r), gamma(g), gamma(bl));
+    }
+
+    private static float labF(float t) {
+        return t > 6 / 29f ? t * t * t : 3 * (6 / 29f) * (6 / 29f) * (t - 4 / 29f);
+    }
+
+    private static float gamma(float v) {
+        return v <= .0031308f ? 12.92f * v : (float) (1.055 * Math.pow(v, 1 / 2.4) - .055);
+    }
+
+    /**
+     * A palette read by {@link PaletteLoader}, a flat array of colors with an optional hierarchy.
+     */
+    public static final class Result {
+        final int[] colors;
+        final int count;
+        @Nullable
+        final int[] offsets;
+        final int rows;
+
+        Result(int[] colors, int count, @Nullable int[] offsets, int rows) {
+            this.colors = colors;
+            this.count = count;
+            this.offsets = offsets;
+            this.rows = rows;
+        }
+
+        /**
+         * Create a palette with a hierarchy, row r holds colors[offsets[r]] until colors[offsets[r + 1]]
+         * and its first color is the primary color.
+         *
+         * @param offsets rows + 1 increasing offsets, or null for a flat palette.
+         */
+        @NonNull
+        public static Result of(@NonNull @ColorInt int[] colors, @Nullable int[] offsets) {
+            int rows = offsets == null ? 0 : offsets.length - 1;
+            if (offsets != null && (rows < 0 || offsets[0] != 0 || offsets[rows] != colors.length))
+                throw new IllegalArgumentException("Invalid offsets");
+            return new Result(colors.clone(), colors.length, offsets == null ? null : offsets.clone(), Math.max(rows, 0));
+        }
+
+        /**
+         * @return number of colors.
+         */
+        public int size() {
+            return count;
+        }
+
+        @ColorInt
+        public int getColor(int index) {
+            if (index < 0 || index >= count)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+            return colors[index];
+        }
+
+        /**
+         * @return number of rows of the hierarchy, 0 for a flat palette.
+         */
+        public int rows() {
+            return rows;
+        }
+
+        /**
+         * @return index of the first color of the row.
+         */
+        public int rowStart(int row) {
+            checkRow(row);
+            return offsets[row];
+        }
+
+        /**
+         * @return index after the last color of the row.
+         */
+        public int rowEnd(int row) {
+            checkRow(row);
+            return offsets[row + 1];
+        }
+
+        /**
+         * @return a copy of the colors.
+         */
+        @NonNull
+        public int[] getColors() {
+            return Arrays.copyOf(colors, count);
+        }
+
+        /**
+         * @return the colors as a {@link Palette}, e.g. for {@link ColorDialogBuilder#setColors(int[], int, int)}.
+         */
+        @NonNull
+        public Palette toPalette() {
+            Palette palette = new Palette(count);
+            palette.addAll(colors, 0, count);
+            return palette;
+        }
+
+        private void checkRow(int row) {
+            if (row < 0 || row >= rows)
+                throw new IndexOutOfBoundsException("Row: " + row + ", Rows: " + rows);
+        }
+    }
+
+    /**
+     * Growable int array used while reading.
+     */
+    private static final class Ints {
+        int[] a;
+        int size;
+
+        Ints() {
+            this(64);
+        }
+
+        Ints(int capacity) {
+            a = new int[Math.max(capacity, 1)];
+        }
+
+        void add(int v) {
+            if (size == a.length) a = Arrays.copyOf(a, size * 2);
+            a[size++] = v;
+        }
+
+        Result toResult(@Nullable Ints rows) {
+            if (rows == null) return new Result(a, size, null, 0);
+            return new Result(a, size, Arrays.copyOf(rows.a, rows.size), rows.size - 1);
+        }
+    }
+
+    /**
+     * Reusable line of a text palette, bytes are read as ISO-8859-1 since only ASCII matters.
+     */
+    private static final class Line {
+        char[] chars = new char[128];
+        int length;
+
+        int skipSpaces(int p) {
+            while (p < length && (chars[p] == ' ' || chars[p] == '\t')) p++;
+            return p;
+        }
+
+        boolean startsWith(String prefix) {
+            if (length < prefix.length()) return false;
+            for (int i = 0; i < prefix.length(); i++) if (chars[i] != prefix.charAt(i)) return false;
+            return true;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+    }
+
+    /**
+     * Buffered big endian reader over an {@link InputStream}.
+     */
+    private static final class Source {
+        private final InputStream in;
+        private final byte[] buf = new byte[8192];
+        private int pos, lim;
+        /**
+         * Number of bytes consumed so far.
+         */
+        long consumed;
+
+        Source(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return the byte at pos + i without consuming it, or -1 at the end of the stream.
+         */
+        int peek(int i) throws IOException {
+            while (lim - pos <= i) {
+                if (pos > 0) {
+                    System.arraycopy(buf, pos, buf, 0, lim - pos);
+                    lim -= pos;
+                    pos = 0;
+                }
+                int n = in.read(buf, lim, buf.length - lim);
+                if (n <= 0) return -1;
+                lim += n;
+            }
+            return buf[pos + i] & 0xff;
+        }
+
+        int read() throws IOException {
+            if (pos == lim) {
+                int n = in.read(buf, 0, buf.length);
+                if (n <= 0) return -1;
+                pos = 0;
+                lim = n;
+            }
+            consumed++;
+            return buf[pos++] & 0xff;
+        }
+
+        int u8() throws IOException {
+            int b = read();
+            if (b < 0) throw new EOFException();
+            return b;
+        }
+
+        int u16() throws IOException {
+            return u8() << 8 | u8();
+        }
+
+        int s32() throws IOException {
+            return u8() << 24 | u8() << 16 | u8() << 8 | u8();
+        }
+
+        float f32() throws IOException {
+            return Float.intBitsToFloat(s32());
+        }
+
+        void skip(long n) throws IOException {
+            while (n > 0) {
+                if (pos == lim && peek(0) < 0) throw new EOFException();
+                int k = (int) Math.min(n, lim - pos);
+                pos += k;
+                consumed += k;
+                n -= k;
+            }
+        }
+
+        /**
+         * Read the next line without its terminator into line.
+         *
+         * @return false at the end of the stream.
+         */
+        boolean readLine(Line line) throws IOException {
+            int b = read();
+            if (b < 0) return false;
+            line.length = 0;
+            while (b >= 0 && b != '\n') {
+                if (b != '\r') {
+                    if (line.length == line.chars.length) line.chars = Arrays.copyOf(line.chars, line.length * 2);
+                    line.chars[line.length++] = (char) b;
+                }
+                b = read();
+            }
+            return true;
+        }
+    }
+
+    @IntDef(value = {GPL, ACO, ASE, HEX, BINARY})
+    public @interface Format {
+    }
+}
@@ -0,0 +1,168 @@
+package com.preons.pranav.colorpickerdialog;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+
+/**
+ * Immutable, versioned copy of the colors of a {@link Palette}, meant to be shared: any number of
+ * palettes (and so of {@link ColorDialogBuilder}s, on any thread) can use the same snapshot with
+ * {@link Palette#setAll(PaletteSnapshot)} without copying it. A palette copies the colors only
+ * when it is changed, and edits of a snapshot ({@link PaletteSnapshot#with(int, int)}, ...)
+ * derive a new snapshot.
+ * <p>
+ * Every snapshot has its own {@link PaletteSnapshot#version() version}, and a palette reports the
+ * version of the snapshot it uses until it is changed, so two equal versions always mean the same
+ * colors. {@link ColorDialogBuilder#refresh()} uses it to skip a dialog that already shows the colors.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ * @see Palette#snapshot()
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class PaletteSnapshot {
+
+    private static final AtomicLong versions = new AtomicLong();
+
+    /**
+     * Shared with the palettes using the snapshot, <b>never modified</b>.
+     */
+    final int[] values;
+    final long[] empty;
+    final int size, emptyCount;
+    private final long version;
+
+    PaletteSnapshot(int[] values, long[] empty, int size, int emptyCount, long version) {
+        this.values = values;
+        this.empty = empty;
+        this.size = size;
+        this.emptyCount = emptyCount;
+        this.version = version;
+    }
+
+    /**
+     * @return a snapshot holding a copy of colors.
+     */
+    @NonNull
+    public static PaletteSnapshot of(@ColorInt int... colors) {
+        return Palette.of(colors).snapshot();
+    }
+
+    /**
+     * @return a version never returned before, never 0.
+     */
+    static long nextVersion() {
+        return versions.incrementAndGet();
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return number of slots, including the empty ones.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int colorCount() {
+        return size - emptyCount;
+    }
+
+    public int nullCount() {
+        return emptyCount;
+    }
+
+    public boolean isNull(int index) {
+        checkIndex(index);
+        return (empty[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return the color at index, or 0 for an empty slot.
+     */
+    @ColorInt
+    public int get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * @see Palette#toArray(int[])
+     */
+    public int toArray(@NonNull @ColorInt int[] dst) {
+        return derive().toArray(dst);
+    }
+
+    /**
+     * @return a snapshot with color at index, this snapshot if it already has it.
+     */
+    @NonNull
+    public PaletteSnapshot with(int index, @ColorInt int color) {
+        Palette p = derive();
+        return p.set(index, color) ? p.snapshot() : this;
+    }
+
+    /**
+     * @return a snapshot with an empty slot at index, this snapshot if it is already empty.
+     */
+    @NonNull
+    public PaletteSnapshot withNull(int index) {
+        Palette p = derive();
+        return p.setNull(index) ? p.snapshot() : this;
+    }
+
+    /**
+     * @return a snapshot with colors appended.
+     */
+    @NonNull
+    public PaletteSnapshot plus(@NonNull @ColorInt int... colors) {
+        if (colors.length == 0) return this;
+        Palette p = derive();
+        p.addAll(colors, 0, colors.length);
+        return p.snapshot();
+    }
+
+    /**
+     * @return a palette using this snapshot, it copies the colors once changed.
+     */
+    @NonNull
+    private Palette derive() {
+        Palette p = new Palette(0);
+        p.setAll(this);
+        return p;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "v" + version + derive();
+    }
+
+    /**
+     * Content equality, snapshots of the same {@link PaletteSnapshot#version()} are always equal.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PaletteSnapshot)) return false;
+        PaletteSnapshot s = (PaletteSnapshot) o;
+        return version == s.version || size == s.size && emptyCount == s.emptyCount
+                && Arrays.equals(values, s.values) && Arrays.equals(empty, s.empty);
+    }
+
+    @Override
+    public int hashCode() {
+        return derive().hashCode();
+    }
+}
@@ -0,0 +1,71 @@
+package com.preons.pranav.colorpickerdialog;
+
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.widget.GridLayout;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Everything the {@link ColorDialogBuilder#GRID} renderer needs that does not touch a view,
+ * computed off the main thread by {@link ColorDialogBuilder#prewarm(java.util.concurrent.Executor)}.
+ * <p>
+ * It is immutable once built and is only used by {@link ColorDialogBuilder#create()} if the colors,
+ * the number of cells, the columns and the style are still the ones it was built for.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+final class PreparedGrid {
+
+    private final int[] colors;
+    private final int size;
+    final int count;
+    final int columns;
+    final int style;
+    /**
+     * Color filter of every cell, the padding cells are {@link Color#WHITE}.
+     */
+    final PorterDuffColorFilter[] filters;
+    /**
+     * {@link GridLayout.Spec} of every row and column index.
+     */
+    final GridLayout.Spec[] specs;
+
+    /**
+     * @param colors  the colors, not copied
+     * @param size    number of colors used in colors
+     * @param count   number of cells, at least size
+     * @param columns number of columns
+     * @param style   style of the swatches
+     */
+    PreparedGrid(@NonNull int[] colors, int size, int count, int columns, int style) {
+        this.colors = colors;
+        this.size = size;
+        this.count = count;
+        this.columns = columns;
+        this.style = style;
+        filters = new PorterDuffColorFilter[count];
+        PorterDuffColorFilter white = null;
+        for (int i = 0; i < count; i++)
+            if (i < size) filters[i] = new PorterDuffColorFilter(colors[i], PorterDuff.Mode.SRC_ATOP);
+            else filters[i] = white != null ? white
+                    : (white = new PorterDuffColorFilter(Color.WHITE, PorterDuff.Mode.SRC_ATOP));
+        specs = new GridLayout.Spec[Math.max(count / columns + 1, columns)];
+        for (int i = 0; i < specs.length; i++) specs[i] = GridLayout.spec(i);
+    }
+
+    /**
+     * @return true if this was built for palette with the given layout.
+     */
+    boolean matches(@NonNull Palette palette, int count, int columns, int style) {
+        if (palette.size() != size || this.count != count || this.columns != columns || this.style != style)
+            return false;
+        for (int i = 0; i < size; i++)
+            if (palette.isNull(i) || palette.get(i) != colors[i]) return false;
+        return true;
+    }
+}
@@ -0,0 +1,407 @@
+package com.preons.pranav.colorpickerdialog;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * The colors picked recently and the favorite colors, shown by {@link ColorDialogBuilder} above
+ * the swatches, see {@link ColorDialogBuilder#setRecentColors(RecentColors)}.
+ * <p>
+ * The recent colors are a fixed capacity LRU held in a primitive array, most recent first,
+ * the least recent color is dropped when a new one is recorded. Favorites are kept apart and
+ * are never dropped.
+ * </p>
+ * <p>
+ * When backed by a file every change is appended to it as a 5 byte record on the given
+ * {@link Executor}, so recording a color never blocks the calling thread. The changes made
+ * while a write is pending are written together. Once the log holds a few times more records
+ * than colors it is compacted: the current colors are written to a new file which replaces it.
+ * A failed write is retried by compacting, up to {@value #RETRIES} times in a row and then again on
+ * the next change. {@link RecentColors#load()} reads the file back in one sequential read.
+ * </p>
+ * <p>
+ * The file is written under its own lock taken before the lock of the colors, the writes are
+ * always scheduled once both are released so any {@link Executor}, even a direct one, can be used.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RecentColors {
+
+    /**
+     * "RCL1", first 4 bytes of the log.
+     */
+    private static final int MAGIC = 0x52434c31;
+    private static final int HEADER = 4, RECORD = 5;
+    private static final byte PICK = 'P', FAVORITE = 'F', UNFAVORITE = 'U', REMOVE = 'R', CLEAR = 'C';
+    /**
+     * Number of times in a row a failed write is retried before waiting for the next change.
+     */
+    private static final int RETRIES = 3;
+
+    private final int capacity;
+    private final int[] recent, favorites;
+    private int recentCount, favoriteCount;
+
+    @Nullable
+    private final File file;
+    @Nullable
+    private final Executor executor;
+    /**
+     * Changes not written yet, an op and a color per record.
+     */
+    private byte[] pendingOps = new byte[16];
+    private int[] pendingColors = new int[16];
+    private int pending;
+    private boolean scheduled, compact;
+    private int failures;
+    /**
+     * Number of records in the file, guarded by {@link RecentColors#io}.
+     */
+    private int logged;
+    private final Object io = new Object();
+    private final Runnable write = this::write;
+
+    /**
+     * Colors kept in memory only.
+     *
+     * @param capacity number of recent colors kept, and maximum number of favorites
+     */
+    public RecentColors(int capacity) {
+        this(capacity, null, null);
+    }
+
+    /**
+     * Colors persisted to file, call {@link RecentColors#load()} before recording any color.
+     *
+     * @param capacity number of recent colors kept, and maximum number of favorites
+     * @param file     file the changes are appended to
+     * @param executor executor the file is written on
+     */
+    public RecentColors(int capacity, @Nullable File file, @Nullable Executor executor) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity: " + capacity);
+        if ((file == null) != (executor == null))
+            throw new IllegalArgumentException("file and executor go together");
+        this.capacity = capacity;
+        this.file = file;
+        this.executor = executor;
+        recent = new int[capacity];
+        favorites = new int[capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Replace the colors by the ones of the file, does nothing if the file does not exist.<br>
+     * It reads the file on the calling thread.
+     *
+     * @throws IOException if the file can not be read, the colors are then empty.
+     */
+    public RecentColors load() throws IOException {
+        if (file == null) return this;
+        boolean schedule = false;
+        synchronized (io) {
+            byte[] data;
+            try (InputStream in = new FileInputStream(file)) {
+                long length = file.length();
+                if (length > Integer.MAX_VALUE) throw new IOException("File too large: " + length);
+                data = new byte[(int) length];
+                for (int n = 0, r; n < data.length; n += r)
+                    if ((r = in.read(data, n, data.length - n)) < 0) {
+                        data = Arrays.copyOf(data, n);
+                        break;
+                    }
+            } catch (FileNotFoundException e) {
+                data = new byte[0];
+            }
+            synchronized (this) {
+                recentCount = favoriteCount = 0;
+                pending = 0;
+                boolean valid = data.length >= HEADER && readInt(data, 0) == MAGIC;
+                // a truncated last record, e.g. after a crash while writing, is ignored
+                int records = valid ? (data.length - HEADER) / RECORD : 0;
+                for (int i = 0, o = HEADER; i < records; i++, o += RECORD)
+                    apply(data[o], readInt(data, o + 1));
+                logged = records;
+                // rewrite a file that is not a log, or whose last record is truncated
+                if (data.length != 0 && (!valid || data.length != HEADER + records * RECORD)) {
+                    compact = true;
+                    schedule = claimWrite();
+                }
+            }
+        }
+        if (schedule) schedule();
+        return this;
+    }
+
+    /**
+     * Record color as the most recent color, favorite colors stay where they are.
+     */
+    public void record(@ColorInt int color) {
+        change(PICK, color);
+    }
+
+    /**
+     * Make color a favorite, or a recent color again.
+     *
+     * @return false if color is to be a favorite and there are already {@link RecentColors#capacity()} favorites.
+     */
+    public boolean setFavorite(@ColorInt int color, boolean favorite) {
+        boolean schedule;
+        synchronized (this) {
+            if (favorite == isFavorite(color)) return true;
+            byte op = favorite ? FAVORITE : UNFAVORITE;
+            if (!apply(op, color)) return false;
+            schedule = log(op, color);
+        }
+        if (schedule) schedule();
+        return true;
+    }
+
+    public synchronized boolean isFavorite(@ColorInt int color) {
+        return indexOf(favorites, favoriteCount, color) != -1;
+    }
+
+    /**
+     * Forget color, either recent or favorite.
+     */
+    public void remove(@ColorInt int color) {
+        change(REMOVE, color);
+    }
+
+    public void clear() {
+        change(CLEAR, 0);
+    }
+
+    /**
+     * Apply a change and log it, its write is scheduled once the lock is released.
+     */
+    private void change(byte op, int color) {
+        boolean schedule;
+        synchronized (this) {
+            schedule = apply(op, color) && log(op, color);
+        }
+        if (schedule) schedule();
+    }
+
+    public synchronized int recentCount() {
+        return recentCount;
+    }
+
+    public synchronized int favoriteCount() {
+        return favoriteCount;
+    }
+
+    /**
+     * Copy the recent colors to dst, most recent first.
+     *
+     * @return number of colors written.
+     */
+    public synchronized int getRecent(@NonNull @ColorInt int[] dst) {
+        int n = Math.min(recentCount, dst.length);
+        System.arraycopy(recent, 0, dst, 0, n);
+        return n;
+    }
+
+    /**
+     * Copy the favorite colors to dst, in the order they were added.
+     *
+     * @return number of colors written.
+     */
+    public synchronized int getFavorites(@NonNull @ColorInt int[] dst) {
+        int n = Math.min(favoriteCount, dst.length);
+        System.arraycopy(favorites, 0, dst, 0, n);
+        return n;
+    }
+
+    /**
+     * Copy the favorite colors then the recent colors to dst, as they are shown by {@link ColorDialogBuilder}.
+     *
+     * @return number of colors written.
+     */
+    public synchronized int getAll(@NonNull @ColorInt int[] dst) {
+        int f = Math.min(favoriteCount, dst.length), n = Math.min(recentCount, dst.length - f);
+        System.arraycopy(favorites, 0, dst, 0, f);
+        System.arraycopy(recent, 0, dst, f, n);
+        return f + n;
+    }
+
+    /**
+     * Apply a change to the colors.
+     *
+     * @return true if the colors changed.
+     */
+    private boolean apply(byte op, int color) {
+        int i;
+        switch (op) {
+            case PICK:
+                if (indexOf(favorites, favoriteCount, color) != -1) return false;
+                i = indexOf(recent, recentCount, color);
+                if (i == 0) return false;
+                if (i == -1) i = recentCount < capacity ? recentCount++ : capacity - 1;
+                System.arraycopy(recent, 0, recent, 1, i);
+                recent[0] = color;
+                return true;
+            case FAVORITE:
+                if (favoriteCount == capacity || indexOf(favorites, favoriteCount, color) != -1) return false;
+                if ((i = indexOf(recent, recentCount, color)) != -1) removeAt(recent, recentCount--, i);
+                favorites[favoriteCount++] = color;
+                return true;
+            case UNFAVORITE:
+                i = indexOf(favorites, favoriteCount, color);
+                if (i == -1) return false;
+                removeAt(favorites, favoriteCount--, i);
+                apply(PICK, color);
+                return true;
+            case REMOVE:
+                if ((i = indexOf(favorites, favoriteCount, color)) != -1) removeAt(favorites, favoriteCount--, i);
+                else if ((i = indexOf(recent, recentCount, color)) != -1) removeAt(recent, recentCount--, i);
+                return i != -1;
+            case CLEAR:
+                if (recentCount == 0 && favoriteCount == 0) return false;
+                recentCount = favoriteCount = 0;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int indexOf(int[] a, int n, int color) {
+        for (int i = 0; i < n; i++) if (a[i] == color) return i;
+        return -1;
+    }
+
+    private static void removeAt(int[] a, int n, int i) {
+        System.arraycopy(a, i + 1, a, i, n - i - 1);
+    }
+
+    /**
+     * Queue a change to be written, the caller holds the lock.
+     *
+     * @return true if the caller is to {@link RecentColors#schedule()} the write once it released the lock.
+     */
+    private boolean log(byte op, int color) {
+        if (file == null) return false;
+        if (pending == pendingOps.length) {
+            pendingOps = Arrays.copyOf(pendingOps, pending * 2);
+            pendingColors = Arrays.copyOf(pendingColors, pending * 2);
+        }
+        pendingOps[pending] = op;
+        pendingColors[pending++] = color;
+        failures = 0;
+        return claimWrite();
+    }
+
+    /**
+     * Mark a write as scheduled, the caller holds the lock.
+     *
+     * @return false if a write is already scheduled.
+     */
+    private boolean claimWrite() {
+        if (scheduled || executor == null) return false;
+        scheduled = true;
+        return true;
+    }
+
+    /**
+     * Schedule the write claimed by {@link RecentColors#claimWrite()}, with no lock held.
+     */
+    private void schedule() {
+        //noinspection ConstantConditions
+        executor.execute(write);
+    }
+
+    private void write() {
+        if (flush()) schedule();
+    }
+
+    /**
+     * Write the pending changes, or the whole colors when the log is to be compacted.
+     *
+     * @return true if the write failed and is to be retried.
+     */
+    private boolean flush() {
+        synchronized (io) {
+            byte[] ops;
+            int[] values;
+            int n;
+            boolean rewrite;
+            synchronized (this) {
+                scheduled = false;
+                rewrite = compact || logged + pending > 4 * capacity + 16;
+                if (rewrite) {
+                    // favorites first, then the recent colors least recent first
+                    n = favoriteCount + recentCount;
+                    ops = new byte[n];
+                    values = new int[n];
+                    for (int i = 0; i < favoriteCount; i++) {
+                        ops[i] = FAVORITE;
+                        values[i] = favorites[i];
+                    }
+                    for (int i = 0; i < recentCount; i++) {
+                        ops[favoriteCount + i] = PICK;
+                        values[favoriteCount + i] = recent[recentCount - 1 - i];
+                    }
+                    compact = false;
+                } else {
+                    n = pending;
+                    ops = Arrays.copyOf(pendingOps, n);
+                    values = Arrays.copyOf(pendingColors, n);
+                }
+                pending = 0;
+            }
+            if (n == 0 && !rewrite) return false;
+            //noinspection ConstantConditions
+            File target = rewrite ? new File(file.getPath() + ".tmp") : file;
+            boolean header = rewrite || file.length() == 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(target, !rewrite), HEADER + n * RECORD))) {
+                if (header) out.writeInt(MAGIC);
+                for (int i = 0; i < n; i++) {
+                    out.writeByte(ops[i]);
+                    out.writeInt(values[i]);
+                }
+            } catch (IOException e) {
+                return failed();
+            }
+            if (rewrite && !target.renameTo(file) && !(file.delete() && target.renameTo(file)))
+                return failed();
+            logged = rewrite ? n : logged + n;
+            synchronized (this) {
+                failures = 0;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Compact the log on the next write, the changes not written are then written with it.
+     *
+     * @return true if the write is to be retried now.
+     */
+    private synchronized boolean failed() {
+        compact = true;
+        return ++failures <= RETRIES && claimWrite();
+    }
+
+    private static int readInt(byte[] b, int o) {
+        return (b[o] & 0xff) << 24 | (b[o + 1] & 0xff) << 16 | (b[o + 2] & 0xff) << 8 | b[o + 3] & 0xff;
+    }
+}
@@ -0,0 +1,129 @@
+package com.preons.pranav.colorpickerdialog;
+
+import java.util.Arrays;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+
+/**
+ * The colors of {@link ColorDialogBuilder.Mode#SECONDARY_SELECTION} stored flat: every row is a
+ * primary color followed by its sub colors, all the rows share one <b>int</b> array and row r spans
+ * {@code values[offsets[r]]} until {@code values[offsets[r + 1]]} (CSR layout).
+ * <p>
+ * Rows are not materialized until they are opened, {@link SecondaryPalette#copyRow(int, Palette)}
+ * copies one row into a reusable {@link Palette}.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class SecondaryPalette {
+
+    private int[] values = new int[16];
+    private int[] offsets = new int[9];
+    private int rows;
+
+    /**
+     * @return number of rows, i.e. number of primary colors.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    public boolean isEmpty() {
+        return rows == 0;
+    }
+
+    /**
+     * @return total number of colors of all the rows.
+     */
+    public int size() {
+        return offsets[rows];
+    }
+
+    /**
+     * @return the primary color of the row, its first color.
+     */
+    @ColorInt
+    public int primary(int row) {
+        checkRow(row);
+        return values[offsets[row]];
+    }
+
+    public int rowSize(int row) {
+        checkRow(row);
+        return offsets[row + 1] - offsets[row];
+    }
+
+    /**
+     * Append a row of length colors of src starting at offset, the first one being the primary color.
+     */
+    public void addRow(@NonNull @ColorInt int[] src, int offset, int length) {
+        if (length < 1) throw new IllegalArgumentException("A row needs at least its primary color");
+        if (offset < 0 || offset > src.length - length)
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+        int end = offsets[rows];
+        ensure(end + length, rows + 1);
+        System.arraycopy(src, offset, values, end, length);
+        offsets[++rows] = end + length;
+    }
+
+    /**
+     * Append a row of boxed colors, null colors are skipped.
+     */
+    public void addRow(@NonNull @ColorInt Integer[] row) {
+        int end = offsets[rows], n = 0;
+        ensure(end + row.length, rows + 1);
+        for (Integer color : row) if (color != null) values[end + n++] = color;
+        if (n == 0) throw new IllegalArgumentException("A row needs at least its primary color");
+        offsets[++rows] = end + n;
+    }
+
+    /**
+     * Replace every row, row r being values[offsets[r]] until values[offsets[r + 1]].
+     */
+    public void setAll(@NonNull @ColorInt int[] values, @NonNull int[] offsets, int rows) {
+        if (rows < 0 || offsets.length < rows + 1 || offsets[0] != 0 || offsets[rows] > values.length)
+            throw new IllegalArgumentException("Invalid offsets");
+        for (int r = 0; r < rows; r++)
+            if (offsets[r + 1] <= offsets[r]) throw new IllegalArgumentException("Empty row: " + r);
+        clear();
+        ensure(offsets[rows], rows);
+        System.arraycopy(values, 0, this.values, 0, offsets[rows]);
+        System.arraycopy(offsets, 0, this.offsets, 0, rows + 1);
+        this.rows = rows;
+    }
+
+    public void clear() {
+        rows = 0;
+        offsets[0] = 0;
+    }
+
+    /**
+     * Materialize row into dst, replacing its content.
+     */
+    public void copyRow(int row, @NonNull Palette dst) {
+        checkRow(row);
+        dst.setAll(values, offsets[row], offsets[row + 1] - offsets[row]);
+    }
+
+    /**
+     * Replace the content of dst by the primary colors.
+     */
+    public void copyPrimaries(@NonNull Palette dst) {
+        dst.clear();
+        dst.ensureCapacity(rows);
+        for (int r = 0; r < rows; r++) dst.add(values[offsets[r]]);
+    }
+
+    private void ensure(int size, int rows) {
+        if (size > values.length) values = Arrays.copyOf(values, Math.max(size, values.length * 2));
+        if (rows + 1 > offsets.length) offsets = Arrays.copyOf(offsets, Math.max(rows + 1, offsets.length * 2));
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rows) throw new IndexOutOfBoundsException("Row: " + row + ", Rows: " + rows);
+    }
+}
@@ -0,0 +1,202 @@
+package com.preons.pranav.colorpickerdialog;
+
+import java.util.Arrays;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+
+/**
+ * Index based selection of swatches backed by a bitset, used by
+ * {@link ColorDialogBuilder.Mode#MULTI_SELECTION}.
+ * <p>
+ * Toggling an index is O(1) and duplicate colors are selected independently since the
+ * selection tracks indices and not color values.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class Selection {
+
+    private long[] words = new long[1];
+    /**
+     * Number of selectable indices.
+     */
+    private int size;
+    /**
+     * Number of selected indices.
+     */
+    private int count;
+
+    public Selection() {
+    }
+
+    public Selection(int size) {
+        resize(size);
+    }
+
+    /**
+     * Change the number of selectable indices, the selected indices past size are dropped.
+     */
+    public void resize(int size) {
+        if (size < 0) throw new IllegalArgumentException("Illegal size: " + size);
+        int n = words(size);
+        if (n > words.length) words = Arrays.copyOf(words, Math.max(n, words.length * 2));
+        if (size < this.size) setRange(size, this.size, false);
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of selected indices.
+     */
+    public int count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public boolean isSelected(int index) {
+        checkIndex(index);
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Flip the selection of index.
+     *
+     * @return true if index is now selected.
+     */
+    public boolean toggle(int index) {
+        checkIndex(index);
+        int w = index >>> 6;
+        long bit = 1L << index;
+        words[w] ^= bit;
+        boolean selected = (words[w] & bit) != 0;
+        count += selected ? 1 : -1;
+        return selected;
+    }
+
+    /**
+     * @return true if the selection changed.
+     */
+    public boolean set(int index, boolean selected) {
+        checkIndex(index);
+        int w = index >>> 6;
+        long bit = 1L << index;
+        if (((words[w] & bit) != 0) == selected) return false;
+        words[w] ^= bit;
+        count += selected ? 1 : -1;
+        return true;
+    }
+
+    public void selectAll() {
+        setRange(0, size, true);
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0, words(size), 0);
+        count = 0;
+    }
+
+    /**
+     * Select the unselected indices and unselect the selected ones.
+     */
+    public void invert() {
+        int n = words(size);
+        for (int i = 0; i < n; i++) words[i] = ~words[i];
+        int rest = size & 63;
+        if (rest != 0) words[n - 1] &= (1L << rest) - 1;
+        count = size - count;
+    }
+
+    /**
+     * Select or unselect the indices from (inclusive) to (exclusive).
+     */
+    public void setRange(int from, int to, boolean selected) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", size: " + size);
+        if (from == to) return;
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        long firstMask = -1L << from, lastMask = -1L >>> -to;
+        for (int w = first; w <= last; w++) {
+            long mask = -1L;
+            if (w == first) mask &= firstMask;
+            if (w == last) mask &= lastMask;
+            long old = words[w];
+            long now = selected ? old | mask : old & ~mask;
+            count += Long.bitCount(now) - Long.bitCount(old);
+            words[w] = now;
+        }
+    }
+
+    /**
+     * @return the first selected index at or after from, or -1.
+     */
+    public int nextSelected(int from) {
+        if (from < 0) from = 0;
+        if (from >= size) return -1;
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        int n = words(size);
+        while (true) {
+            if (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                return index < size ? index : -1;
+            }
+            if (++w >= n) return -1;
+            word = words[w];
+        }
+    }
+
+    /**
+     * Copy the selected indices in increasing order into dst.
+     * If dst is too small only the first dst.length indices are copied.
+     *
+     * @return number of indices written to dst.
+     */
+    public int getIndices(@NonNull int[] dst) {
+        int n = 0;
+        for (int i = nextSelected(0); i != -1 && n < dst.length; i = nextSelected(i + 1)) dst[n++] = i;
+        return n;
+    }
+
+    /**
+     * Copy the colors of palette at the selected indices into dst.
+     * If dst is too small only the first dst.length colors are copied.
+     *
+     * @return number of colors written to dst.
+     */
+    public int getColors(@NonNull Palette palette, @NonNull @ColorInt int[] dst) {
+        int n = 0, max = palette.size();
+        for (int i = nextSelected(0); i != -1 && i < max && n < dst.length; i = nextSelected(i + 1))
+            dst[n++] = palette.get(i);
+        return n;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder("[");
+        for (int i = nextSelected(0); i != -1; i = nextSelected(i + 1)) {
+            if (b.length() > 1) b.append(", ");
+            b.append(i);
+        }
+        return b.append(']').toString();
+    }
+}
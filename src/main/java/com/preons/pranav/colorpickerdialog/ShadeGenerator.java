@@ -0,0 +1,128 @@
+package com.preons.pranav.colorpickerdialog;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+
+/**
+ * Generates the secondary colors of a primary color, so only the primary colors have to be given
+ * in {@link ColorDialogBuilder.Mode#SECONDARY_SELECTION}.
+ * <p>
+ * A row is the primary color followed by its <i>tints</i> (mixed with white), its <i>shades</i>
+ * (mixed with black) and its <i>tones</i> (mixed with the gray of the same lightness), each
+ * with evenly spaced steps. The mixes are done in OKLab so the steps look evenly spaced.
+ * </p>
+ * <p>
+ * Rows are generated on demand and kept in a small direct mapped cache keyed by the primary
+ * color. <b>Not thread safe.</b>
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ * @see ColorDialogBuilder#setShadeGenerator(ShadeGenerator)
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ShadeGenerator {
+
+    private final int tints, shades, tones, rowSize;
+    private final int[] keys;
+    private final boolean[] cached;
+    private final int[] rows;
+    private final int mask;
+    private final float[] lab = new float[3];
+
+    /**
+     * @see ShadeGenerator#ShadeGenerator(int, int, int, int)
+     */
+    public ShadeGenerator(int tints, int shades, int tones) {
+        this(tints, shades, tones, 32);
+    }
+
+    /**
+     * @param tints     number of tints of every row
+     * @param shades    number of shades of every row
+     * @param tones     number of tones of every row
+     * @param cacheSize number of rows cached, rounded up to a power of two
+     */
+    public ShadeGenerator(int tints, int shades, int tones, int cacheSize) {
+        if (tints < 0 || shades < 0 || tones < 0) throw new IllegalArgumentException("Negative step count");
+        this.tints = tints;
+        this.shades = shades;
+        this.tones = tones;
+        rowSize = 1 + tints + shades + tones;
+        int n = Integer.highestOneBit(Math.max(1, cacheSize - 1)) << 1;
+        keys = new int[n];
+        cached = new boolean[n];
+        rows = new int[n * rowSize];
+        mask = n - 1;
+    }
+
+    /**
+     * @return number of colors of a row, including the primary color.
+     */
+    public int rowSize() {
+        return rowSize;
+    }
+
+    /**
+     * Write the row of primary into dst starting at offset.
+     *
+     * @return number of colors written, {@link ShadeGenerator#rowSize()}.
+     */
+    public int row(@ColorInt int primary, @NonNull @ColorInt int[] dst, int offset) {
+        if (offset < 0 || offset > dst.length - rowSize)
+            throw new IndexOutOfBoundsException("offset: " + offset + ", row size: " + rowSize);
+        System.arraycopy(rows, slot(primary) * rowSize, dst, offset, rowSize);
+        return rowSize;
+    }
+
+    /**
+     * Replace the content of dst by the row of primary.
+     */
+    public void row(@ColorInt int primary, @NonNull Palette dst) {
+        dst.setAll(rows, slot(primary) * rowSize, rowSize);
+    }
+
+    public void clearCache() {
+        for (int i = 0; i < cached.length; i++) cached[i] = false;
+    }
+
+    /**
+     * @return the cache slot holding the row of primary, generated if needed.
+     */
+    private int slot(int primary) {
+        int h = primary * 0x9e3779b9, slot = (h ^ h >>> 16) & mask;
+        if (cached[slot] && keys[slot] == primary) return slot;
+        generate(primary, slot * rowSize);
+        keys[slot] = primary;
+        cached[slot] = true;
+        return slot;
+    }
+
+    private void generate(int primary, int offset) {
+        ColorSpaces.toOklab(primary, lab);
+        float L = lab[0], a = lab[1], b = lab[2];
+        int alpha = primary & 0xff000000, o = offset;
+        rows[o++] = primary;
+        for (int i = 1; i <= tints; i++) {
+            float t = i / (tints + 1f);
+            rows[o++] = mix(L, a, b, 1, t, alpha);
+        }
+        for (int i = 1; i <= shades; i++) {
+            float t = i / (shades + 1f);
+            rows[o++] = mix(L, a, b, 0, t, alpha);
+        }
+        for (int i = 1; i <= tones; i++) {
+            float t = i / (tones + 1f);
+            rows[o++] = mix(L, a, b, L, t, alpha);
+        }
+    }
+
+    /**
+     * @return the color at t of the way from (L, a, b) to the neutral of lightness target.
+     */
+    private static int mix(float L, float a, float b, float target, float t, int alpha) {
+        int c = ColorSpaces.fromOklab(L + (target - L) * t, a * (1 - t), b * (1 - t));
+        return c & 0xffffff | alpha;
+    }
+}
@@ -0,0 +1,152 @@
+package com.preons.pranav.colorpickerdialog;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.OvershootInterpolator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Scale and alpha animation of a swatch view.<br>
+ * Every view has a single {@link SwatchAnimator} kept in its {@link R.id#swatch_animator} tag,
+ * whose one {@link ValueAnimator} runs from 0 to 1 and is reused by every animation, the values
+ * are interpolated as primitive <b>float</b>s, so a tap allocates nothing once the view animated once.
+ * <p>
+ * Starting an animation while one is running retargets it from the current values instead of
+ * stacking a new one, and the view has a hardware layer only while it animates. The end action of
+ * an animation runs once it ends, is retargeted, or is stopped by {@link SwatchAnimator#set(View, float, float)}.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+final class SwatchAnimator extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener {
+
+    private static final TimeInterpolator overshoot = new OvershootInterpolator();
+    private static final TimeInterpolator pulse = new AccelerateDecelerateInterpolator();
+
+    private final View view;
+    private final ValueAnimator animator;
+    private float fromScale, toScale, fromAlpha, toAlpha;
+    /**
+     * Scale reached halfway when pulsing, 0 for a plain animation.
+     */
+    private float peak;
+    private boolean layer, restarting;
+    @Nullable
+    private Runnable endAction;
+
+    private SwatchAnimator(View view) {
+        this.view = view;
+        toScale = view.getScaleX();
+        toAlpha = view.getAlpha();
+        animator = ValueAnimator.ofFloat(0, 1);
+        animator.addUpdateListener(this);
+        animator.addListener(this);
+    }
+
+    /**
+     * @return the animator of view, created on first use.
+     */
+    @NonNull
+    static SwatchAnimator of(@NonNull View view) {
+        SwatchAnimator a = (SwatchAnimator) view.getTag(R.id.swatch_animator);
+        if (a == null) view.setTag(R.id.swatch_animator, a = new SwatchAnimator(view));
+        return a;
+    }
+
+    /**
+     * Stop the animation of view if it has one and set its scale and alpha.
+     */
+    static void set(@NonNull View view, float scale, float alpha) {
+        SwatchAnimator a = (SwatchAnimator) view.getTag(R.id.swatch_animator);
+        if (a != null) {
+            a.animator.cancel();
+            a.toScale = scale;
+            a.toAlpha = alpha;
+        }
+        view.setScaleX(scale);
+        view.setScaleY(scale);
+        view.setAlpha(alpha);
+    }
+
+    /**
+     * Animate the scale and alpha of the view with an overshoot.
+     */
+    void animateTo(float scale, float alpha, long duration) {
+        fromScale = view.getScaleX();
+        fromAlpha = view.getAlpha();
+        toScale = scale;
+        toAlpha = alpha;
+        peak = 0;
+        start(duration, overshoot);
+    }
+
+    /**
+     * Grow the view to peak and back to the scale it is animating to.
+     */
+    void pulse(float peak, long duration) {
+        pulse(peak, duration, null);
+    }
+
+    /**
+     * @param end run when the pulse ends, is retargeted or stopped.
+     */
+    void pulse(float peak, long duration, @Nullable Runnable end) {
+        fromScale = view.getScaleX();
+        fromAlpha = view.getAlpha();
+        this.peak = peak;
+        start(duration, pulse);
+        endAction = end;
+    }
+
+    private void start(long duration, TimeInterpolator interpolator) {
+        if (animator.isStarted()) {
+            restarting = true;
+            animator.cancel();
+            restarting = false;
+        }
+        runEndAction();
+        animator.setDuration(duration);
+        animator.setInterpolator(interpolator);
+        animator.start();
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        float f = animation.getAnimatedFraction(), scale;
+        if (peak == 0) scale = fromScale + (toScale - fromScale) * f;
+        else if (f < .5f) scale = fromScale + (peak - fromScale) * f * 2;
+        else scale = peak + (toScale - peak) * (f - .5f) * 2;
+        view.setScaleX(scale);
+        view.setScaleY(scale);
+        view.setAlpha(fromAlpha + (toAlpha - fromAlpha) * f);
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        if (layer) return;
+        layer = true;
+        view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        runEndAction();
+        if (restarting || !layer) return;
+        layer = false;
+        view.setLayerType(View.LAYER_TYPE_NONE, null);
+    }
+
+    private void runEndAction() {
+        Runnable end = endAction;
+        endAction = null;
+        if (end != null) end.run();
+    }
+}
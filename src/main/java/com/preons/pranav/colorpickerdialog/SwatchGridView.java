@@ -0,0 +1,366 @@
+package com.preons.pranav.colorpickerdialog;
+
+import android.animation.TimeInterpolator;
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.animation.OvershootInterpolator;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * {@link SwatchGridView} draws a whole palette in one {@link View}, it is the renderer used by
+ * {@link ColorDialogBuilder#CANVAS}.
+ * <p>
+ * The {@link ColorDialogBuilder#CIRCULAR} and {@link ColorDialogBuilder#SQUARE} shapes are drawn
+ * directly on the {@link Canvas}, the tapped swatch is found from the touch position and the
+ * selection scale/alpha effects are animated inside this view, so a tap costs one draw pass
+ * instead of one pass per swatch view.<br>
+ * The per swatch work is the color and animation state of its cell, a change always redraws the
+ * view: the colors are read from the palette when drawing, and only the rows inside the clip are drawn.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class SwatchGridView extends View {
+
+    private static final TimeInterpolator interpolator = new OvershootInterpolator();
+
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF rect = new RectF();
+    private final Rect clip = new Rect();
+
+    /**
+     * Size of a cell including the margin around the swatch.
+     */
+    private final float cell;
+    private final float swatch;
+    private final float inset;
+    private final float radius;
+
+    @Nullable
+    private Palette palette;
+    private int count;
+    private int columns = 5;
+    private int type = ColorDialogBuilder.CIRCULAR;
+
+    private float[] scale = {};
+    private float[] alpha = {};
+    /**
+     * Animation state of the cells listed in {@link SwatchGridView#active}.
+     */
+    private float[] fromScale = {}, toScale = {}, fromAlpha = {}, toAlpha = {};
+    private long[] start = {};
+    private long[] duration = {};
+    private boolean[] pulse = {};
+    /**
+     * Run once the animation of the cell ends, is replaced or cancelled.
+     */
+    private Runnable[] endAction = {};
+    private int[] active = {};
+    private int activeCount;
+
+    private int downIndex = -1;
+    @Nullable
+    private OnSwatchClickListener listener;
+    @Nullable
+    private OnSwatchClickListener downListener;
+
+    public SwatchGridView(Context context) {
+        this(context, null);
+    }
+
+    public SwatchGridView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        Resources res = context.getResources();
+        cell = res.getDimension(R.dimen.buttonSize) + 2 * res.getDimension(R.dimen.mar);
+        swatch = res.getDimension(R.dimen.button);
+        inset = res.getDimension(R.dimen.pad1);
+        radius = res.getDimension(R.dimen.square_radius);
+    }
+
+    /**
+     * @param palette colors to draw.
+     * @param count   number of swatches, slots after palette.size() are drawn {@link Color#WHITE}.
+     */
+    public void setPalette(@NonNull Palette palette, int count) {
+        this.palette = palette;
+        finishAll();
+        if (count > scale.length) {
+            int n = Math.max(count, scale.length + (scale.length >> 1));
+            scale = new float[n];
+            alpha = new float[n];
+            fromScale = new float[n];
+            toScale = new float[n];
+            fromAlpha = new float[n];
+            toAlpha = new float[n];
+            start = new long[n];
+            duration = new long[n];
+            pulse = new boolean[n];
+            endAction = new Runnable[n];
+            active = new int[n];
+        }
+        this.count = count;
+        resetStates();
+        requestLayout();
+    }
+
+    public void setColumns(int columns) {
+        this.columns = Math.max(1, columns);
+        requestLayout();
+    }
+
+    /**
+     * @param type {@link ColorDialogBuilder#CIRCULAR} or {@link ColorDialogBuilder#SQUARE}.
+     */
+    public void setType(int type) {
+        this.type = type;
+        invalidate();
+    }
+
+    public void setOnSwatchClickListener(@Nullable OnSwatchClickListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param listener called as soon as a swatch is touched, before the click completes.
+     */
+    public void setOnSwatchDownListener(@Nullable OnSwatchClickListener listener) {
+        this.downListener = listener;
+    }
+
+    /**
+     * Reset every swatch to scale 1 and alpha 1, cancelling the running animations.
+     */
+    public void resetStates() {
+        Arrays.fill(scale, 0, count, 1);
+        Arrays.fill(alpha, 0, count, 1);
+        finishAll();
+        invalidate();
+    }
+
+    /**
+     * Set the state of a swatch without animation.
+     */
+    public void setState(int index, float scale, float alpha) {
+        if (index < 0 || index >= count) return;
+        this.scale[index] = scale;
+        this.alpha[index] = alpha;
+        removeActive(index);
+        invalidate();
+    }
+
+    /**
+     * Animate a swatch to the given scale and alpha.
+     */
+    public void animateTo(int index, float scale, float alpha, long duration) {
+        if (index < 0 || index >= count) return;
+        start(index, scale, alpha, duration, false);
+    }
+
+    /**
+     * Animate a swatch from its scale to 1.2 and back.
+     */
+    public void pulse(int index, long duration) {
+        pulse(index, duration, null);
+    }
+
+    /**
+     * @param end run when the pulse ends, is replaced or cancelled, right away if index is out of range.
+     */
+    public void pulse(int index, long duration, @Nullable Runnable end) {
+        if (index < 0 || index >= count) {
+            if (end != null) end.run();
+            return;
+        }
+        start(index, 1.2f, alpha[index], duration, true);
+        endAction[index] = end;
+    }
+
+    /**
+     * @return index of the swatch under (x, y) or -1.
+     */
+    public int indexAt(float x, float y) {
+        x -= getPaddingLeft();
+        y -= getPaddingTop();
+        if (x < 0 || y < 0) return -1;
+        int column = (int) (x / cell), row = (int) (y / cell);
+        if (column >= columns) return -1;
+        int index = row * columns + column;
+        return index < count ? index : -1;
+    }
+
+    private void start(int index, float scale, float alpha, long duration, boolean pulse) {
+        fromScale[index] = this.scale[index];
+        fromAlpha[index] = this.alpha[index];
+        toScale[index] = scale;
+        toAlpha[index] = alpha;
+        start[index] = SystemClock.uptimeMillis();
+        this.duration[index] = Math.max(1, duration);
+        this.pulse[index] = pulse;
+        removeActive(index);
+        active[activeCount++] = index;
+        invalidate();
+    }
+
+    private void removeActive(int index) {
+        for (int i = 0; i < activeCount; i++)
+            if (active[i] == index) {
+                active[i] = active[--activeCount];
+                finish(index, false);
+                return;
+            }
+    }
+
+    /**
+     * Cancel every running animation.
+     */
+    private void finishAll() {
+        int n = activeCount;
+        activeCount = 0;
+        for (int i = 0; i < n; i++) finish(active[i], false);
+    }
+
+    /**
+     * Run the end action of the cell at index.
+     *
+     * @param post true to post it, when drawing.
+     */
+    private void finish(int index, boolean post) {
+        Runnable end = endAction[index];
+        if (end == null) return;
+        endAction[index] = null;
+        if (post) post(end);
+        else end.run();
+    }
+
+    /**
+     * Advance the running animations to now.
+     *
+     * @return true if some animation is still running.
+     */
+    private boolean step() {
+        long now = SystemClock.uptimeMillis();
+        for (int i = 0; i < activeCount; ) {
+            int k = active[i];
+            float f = Math.min(1, (now - start[k]) / (float) duration[k]);
+            if (pulse[k]) {
+                float p = f < .5f ? f * 2 : (1 - f) * 2;
+                scale[k] = fromScale[k] + (toScale[k] - fromScale[k]) * p;
+            } else {
+                float p = interpolator.getInterpolation(f);
+                scale[k] = fromScale[k] + (toScale[k] - fromScale[k]) * p;
+                alpha[k] = fromAlpha[k] + (toAlpha[k] - fromAlpha[k]) * Math.min(1, p);
+            }
+            if (f >= 1) {
+                if (pulse[k]) scale[k] = fromScale[k];
+                active[i] = active[--activeCount];
+                finish(k, true);
+            } else i++;
+        }
+        return activeCount > 0;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int rows = (count + columns - 1) / columns;
+        int w = (int) Math.ceil(columns * cell) + getPaddingLeft() + getPaddingRight();
+        int h = (int) Math.ceil(rows * cell) + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(resolveSize(w, widthMeasureSpec), resolveSize(h, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        boolean running = step();
+        if (count == 0) return;
+
+        int left = getPaddingLeft(), top = getPaddingTop();
+        int first = 0, last = (count - 1) / columns;
+        if (canvas.getClipBounds(clip)) {
+            first = Math.max(0, (int) ((clip.top - top) / cell));
+            last = Math.min(last, (int) ((clip.bottom - top) / cell));
+        }
+        boolean square = type == ColorDialogBuilder.SQUARE;
+        int size = palette == null ? 0 : palette.size();
+
+        for (int row = first; row <= last; row++)
+            for (int column = 0, i = row * columns; column < columns && i < count; column++, i++) {
+                float cx = left + column * cell + cell / 2, cy = top + row * cell + cell / 2;
+                float half = swatch / 2 * scale[i], in = inset * scale[i];
+                int a = (int) (alpha[i] * 255);
+
+                paint.setColor(Color.WHITE);
+                paint.setAlpha(a);
+                drawShape(canvas, square, cx, cy, half);
+
+                int color = i < size ? palette.get(i) : Color.WHITE;
+                paint.setColor(color);
+                paint.setAlpha(a * Color.alpha(color) / 255);
+                drawShape(canvas, square, cx, cy, half - in);
+            }
+
+        if (running) postInvalidateOnAnimation();
+    }
+
+    private void drawShape(Canvas canvas, boolean square, float cx, float cy, float half) {
+        if (square) {
+            rect.set(cx - half, cy - half, cx + half, cy + half);
+            canvas.drawRoundRect(rect, radius, radius, paint);
+        } else canvas.drawCircle(cx, cy, half, paint);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // the animations stop with the drawing, end them so their actions still run
+        finishAll();
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                downIndex = indexAt(event.getX(), event.getY());
+                if (downIndex != -1 && downListener != null) downListener.onSwatchClick(this, downIndex);
+                return downIndex != -1;
+            case MotionEvent.ACTION_UP:
+                int index = indexAt(event.getX(), event.getY());
+                if (index != -1 && index == downIndex) {
+                    performClick();
+                    if (listener != null) listener.onSwatchClick(this, index);
+                }
+                downIndex = -1;
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                downIndex = -1;
+                return true;
+        }
+        return downIndex != -1;
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    /**
+     * Called when a swatch of a {@link SwatchGridView} is clicked.
+     */
+    public interface OnSwatchClickListener {
+        void onSwatchClick(SwatchGridView view, int index);
+    }
+}
@@ -0,0 +1,78 @@
+package com.preons.pranav.colorpickerdialog;
+
+import android.widget.ImageButton;
+
+import java.util.Arrays;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Pool of idle swatch views reused by {@link ColorDialogBuilder} when the grid is rebuilt,
+ * e.g. when going from the primary to the secondary colors and back.
+ * <p>
+ * All the views of a pool share the same style, the pool is cleared when the style changes.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+final class SwatchPool {
+
+    static final int DEFAULT_CAPACITY = 64;
+
+    private ImageButton[] views = new ImageButton[8];
+    private int size;
+    private int capacity = DEFAULT_CAPACITY;
+    private int style;
+
+    /**
+     * @return an idle view, or null if the pool is empty.
+     */
+    @Nullable
+    ImageButton acquire() {
+        if (size == 0) return null;
+        ImageButton b = views[--size];
+        views[size] = null;
+        return b;
+    }
+
+    /**
+     * Give back a view detached from its parent, it is dropped if the pool is full.
+     */
+    void release(ImageButton b) {
+        if (size >= capacity) return;
+        if (size == views.length) views = Arrays.copyOf(views, Math.min(capacity, size * 2));
+        views[size++] = b;
+    }
+
+    /**
+     * Clear the pool if its views do not have the given style.
+     */
+    void setStyle(int style) {
+        if (this.style == style) return;
+        this.style = style;
+        clear();
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        if (size > this.capacity) {
+            Arrays.fill(views, this.capacity, size, null);
+            size = this.capacity;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(views, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,123 @@
+package com.preons.pranav.colorpickerdialog;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.drawable.Drawable;
+import android.util.SparseArray;
+import android.view.ViewGroup;
+import android.widget.ImageButton;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StyleRes;
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.core.view.ViewCompat;
+
+/**
+ * Resolved swatch styles ({@link R.style#square}, {@link R.style#circular}) shared by every
+ * {@link ColorDialogBuilder} of a {@link Context}.
+ * <p>
+ * A style is resolved once per context: one themed context, the dimensions, and the
+ * {@link Drawable.ConstantState}s of its drawables. A swatch is then created without any
+ * resource lookup, its drawables are new instances of the shared constant states, so the color
+ * filter of a swatch only applies to it. The dimensions are applied by hand as the layout
+ * attributes of a style are only read when a view is inflated.
+ * </p>
+ * <p>
+ * The cache only holds weak references to the styles, a style lives as long as a builder uses it,
+ * and the contexts are weak keys. <b>Main thread only.</b>
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+final class SwatchStyles {
+
+    /**
+     * Framework attributes of the style, sorted by id as {@link Resources.Theme#obtainStyledAttributes(int, int[])} requires.
+     */
+    private static final int[] ATTRS = {android.R.attr.padding, android.R.attr.layout_width,
+            android.R.attr.layout_height, android.R.attr.layout_margin, android.R.attr.src, android.R.attr.elevation};
+    private static final int PADDING = 0, WIDTH = 1, HEIGHT = 2, MARGIN = 3, SRC = 4, ELEVATION = 5;
+
+    private static final WeakHashMap<Context, SparseArray<WeakReference<Style>>> cache = new WeakHashMap<>();
+
+    private SwatchStyles() {
+    }
+
+    /**
+     * @return the style resolved for context, resolved now if it is not cached.
+     */
+    @NonNull
+    static Style get(@NonNull Context context, @StyleRes int style) {
+        SparseArray<WeakReference<Style>> styles = cache.get(context);
+        if (styles == null) cache.put(context, styles = new SparseArray<>());
+        WeakReference<Style> ref = styles.get(style);
+        Style s = ref != null ? ref.get() : null;
+        if (s == null) styles.put(style, new WeakReference<>(s = new Style(context, style)));
+        return s;
+    }
+
+    static final class Style {
+        private final Context context;
+        private final int width, height, margin, padding;
+        private final float elevation;
+        @Nullable
+        private final Drawable.ConstantState src, background;
+
+        private Style(Context base, @StyleRes int style) {
+            context = new ContextThemeWrapper(base, style);
+            Resources.Theme theme = context.getTheme();
+            TypedArray a = theme.obtainStyledAttributes(style, ATTRS);
+            width = a.getLayoutDimension(WIDTH, ViewGroup.LayoutParams.WRAP_CONTENT);
+            height = a.getLayoutDimension(HEIGHT, ViewGroup.LayoutParams.WRAP_CONTENT);
+            margin = a.getDimensionPixelSize(MARGIN, 0);
+            padding = a.getDimensionPixelSize(PADDING, 0);
+            float elevation = a.getDimension(ELEVATION, 0);
+            src = state(a.getDrawable(SRC));
+            a.recycle();
+
+            // attributes of the support library, their ids are not constant so they are read alone
+            a = theme.obtainStyledAttributes(style, new int[]{R.attr.background});
+            Drawable.ConstantState background = state(a.getDrawable(0));
+            a.recycle();
+            this.background = background != null ? background : src;
+            if (elevation == 0) {
+                a = theme.obtainStyledAttributes(style, new int[]{R.attr.elevation});
+                elevation = a.getDimension(0, 0);
+                a.recycle();
+            }
+            this.elevation = elevation;
+        }
+
+        @Nullable
+        private static Drawable.ConstantState state(@Nullable Drawable d) {
+            return d != null ? d.getConstantState() : null;
+        }
+
+        /**
+         * @param params layout params of the swatch, their size and margins are set from the style.
+         * @return a new swatch of this style.
+         */
+        @NonNull
+        ImageButton newSwatch(@NonNull ViewGroup.LayoutParams params) {
+            Resources res = context.getResources();
+            ImageButton b = new ImageButton(context, null, 0);
+            if (background != null) ViewCompat.setBackground(b, background.newDrawable(res));
+            if (src != null) b.setImageDrawable(src.newDrawable(res));
+            b.setPadding(padding, padding, padding, padding);
+            ViewCompat.setElevation(b, elevation);
+            params.width = width;
+            params.height = height;
+            if (params instanceof ViewGroup.MarginLayoutParams)
+                ((ViewGroup.MarginLayoutParams) params).setMargins(margin, margin, margin, margin);
+            b.setLayoutParams(params);
+            return b;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.preons.pranav.colorpickerdialog;
+
+import androidx.annotation.IntDef;
+
+/**
+ * Receives the duration of the phases of opening a dialog, e.g. to check that
+ * {@link ColorDialogBuilder#prewarm(java.util.concurrent.Executor, ColorDialogBuilder.OnPrewarmListener) pre-warming}
+ * lowers the time to the first frame.
+ * <p>
+ * {@link Timings#PREPARE} is reported from the thread of the executor, every other phase
+ * from the main thread.
+ * </p>
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ * @see ColorDialogBuilder#setTimings(Timings)
+ * @see Metrics
+ */
+public interface Timings {
+
+    /**
+     * Background preparation of the palette, color filters and layout specs.
+     */
+    int PREPARE = 1;
+
+    /**
+     * Building the swatches of the grid on the main thread.
+     */
+    int BUILD = 2;
+
+    /**
+     * The whole {@link ColorDialogBuilder#create()}, including {@link Timings#BUILD}.
+     */
+    int CREATE = 3;
+
+    /**
+     * From the start of {@link ColorDialogBuilder#create()} to the first draw of the dialog.
+     */
+    int FIRST_FRAME = 4;
+
+    /**
+     * From the tap on a swatch to the call of {@link ColorDialogBuilder.Listener.Tap} or
+     * {@link ColorDialogBuilder.Listener.SecondarySelection}.
+     *
+     * @see ColorDialogBuilder#setDispatch(int)
+     */
+    int DISPATCH = 5;
+
+    /**
+     * The work of the dialog's {@link android.content.DialogInterface.OnShowListener}: the show listeners,
+     * the refresh of the colors changed since {@link ColorDialogBuilder#create()} and the highlight.
+     */
+    int SHOW = 6;
+
+    /**
+     * @param phase the phase that completed
+     * @param nanos its duration in nanoseconds
+     */
+    void onPhase(@Phase int phase, long nanos);
+
+    @IntDef(value = {PREPARE, BUILD, CREATE, FIRST_FRAME, DISPATCH, SHOW})
+    @interface Phase {
+    }
+}
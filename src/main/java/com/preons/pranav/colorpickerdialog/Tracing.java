@@ -0,0 +1,31 @@
+package com.preons.pranav.colorpickerdialog;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * {@link Trace} sections of the phases of {@link ColorDialogBuilder}, nothing is emitted below API 18.<br>
+ * The sections must begin and end on the same thread.
+ *
+ * @author Pranav Raut
+ * @version 1.0
+ * @since 1.1
+ */
+final class Tracing {
+
+    static final String PREPARE = "ColorDialog#prepare", BUILD = "ColorDialog#build",
+            CREATE = "ColorDialog#create", SHOW = "ColorDialog#show", DISPATCH = "ColorDialog#dispatch";
+
+    private static final boolean ENABLED = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+
+    private Tracing() {
+    }
+
+    static void begin(String section) {
+        if (ENABLED) Trace.beginSection(section);
+    }
+
+    static void end() {
+        if (ENABLED) Trace.endSection();
+    }
+}
@@ -0,0 +1,23 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DialogLogTest {
+
+    @Test
+    public void format_fillsPlaceholdersInOrder() {
+        assertEquals("TAP: onClick: ff112233 Selected at index 7",
+                new DialogLog.Format("{}: onClick: {x} Selected at index {}")
+                        .arg("TAP").arg(0xff112233).arg(7).end());
+        assertEquals("a 1f b", new DialogLog.Format("{} {x} {}").arg("a").arg((Object) 31).arg("b").end());
+    }
+
+    @Test
+    public void format_keepsOtherBracesAndExtraArguments() {
+        assertEquals("{a} 1 {} {", new DialogLog.Format("{a} {} {} {").arg(1).end());
+        assertEquals("x", new DialogLog.Format("x").arg(1).arg("y").end());
+        assertEquals("null", new DialogLog.Format("{}").arg(null).end());
+    }
+}
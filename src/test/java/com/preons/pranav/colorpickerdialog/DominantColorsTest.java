@@ -0,0 +1,43 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class DominantColorsTest {
+
+    @Test
+    public void extract_findsColorBlocks() {
+        int w = 60, h = 40;
+        int[] pixels = new int[w * h];
+        for (int y = 0; y < h; y++)
+            for (int x = 0; x < w; x++)
+                pixels[y * w + x] = x < 30 ? 0xffc41c24 : y < 30 ? 0xff2c84e4 : 0xfff4f4f4;
+        int[] colors = new DominantColors().extract(pixels, w, h, 3);
+        assertArrayEquals(new int[]{0xffc41c24, 0xff2c84e4, 0xfff4f4f4}, colors);
+    }
+
+    @Test
+    public void extract_regionAndTransparency() {
+        int[] pixels = {0x00ff0000, 0xff0c0c0c, 0xff0c0c0c, 0xffffffff};
+        int[] dst = new int[4];
+        assertEquals(1, new DominantColors().extract(pixels, 0, 2, 2, 1, dst));
+        assertEquals(0xff0c0c0c, dst[0]);
+    }
+
+    @Test
+    public void parallel_matchesSequential() {
+        Random random = new Random(3);
+        int w = 300, h = 517;
+        int[] pixels = new int[w * h];
+        for (int i = 0; i < pixels.length; i++) pixels[i] = 0xff000000 | random.nextInt(0x1000000);
+        DominantColors d = new DominantColors().setStep(2).setTileHeight(16);
+        int[] sequential = d.extract(pixels, w, h, 16);
+        int[] parallel = d.setPool(new ForkJoinPool(4)).extract(pixels, w, h, 16);
+        assertEquals(16, sequential.length);
+        assertArrayEquals(sequential, parallel);
+    }
+}
@@ -0,0 +1,51 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Test;
+
+import java.nio.CharBuffer;
+
+import static org.junit.Assert.*;
+
+public class HexColorsTest {
+
+    @Test
+    public void parse_allLengths() {
+        assertEquals(0xff112233, HexColors.parse("#123"));
+        assertEquals(0xffa1b2c3, HexColors.parse("#A1b2C3"));
+        assertEquals(0x80a1b2c3, HexColors.parse("#80a1b2c3"));
+        assertEquals(0xffffffff, HexColors.parse(new StringBuilder("#ffffff")));
+    }
+
+    @Test
+    public void parse_rejectsInvalid() {
+        for (String s : new String[]{"", "#", "123456", "#12", "#12345", "#1234567g", "red"}) {
+            assertFalse(s, HexColors.isHex(s));
+            try {
+                HexColors.parse(s);
+                fail(s);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void parseAll_charBufferInChunks() {
+        CharBuffer buffer = CharBuffer.wrap("  #ff0000, 00ff00;\n#00f\t#80000000\n");
+        int[] dst = new int[3];
+        assertEquals(3, HexColors.parseAll(buffer, dst, 0));
+        assertArrayEquals(new int[]{0xffff0000, 0xff00ff00, 0xff0000ff}, dst);
+        assertEquals(1, HexColors.parseAll(buffer, dst, 2));
+        assertEquals(0x80000000, dst[2]);
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void cache_returnsSameValues() {
+        HexColors.Cache cache = new HexColors.Cache(3);
+        assertEquals(4, cache.capacity());
+        String[] colors = {"#010203", "#040506", "#070809", "#0a0b0c", "#010203"};
+        for (int i = 0; i < 3; i++)
+            for (String c : colors) assertEquals(HexColors.parse(c), cache.parse(c));
+        assertEquals(0xff010203, cache.parse(new StringBuilder("#010203")));
+    }
+}
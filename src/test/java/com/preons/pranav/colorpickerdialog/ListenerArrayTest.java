@@ -0,0 +1,44 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ListenerArrayTest {
+
+    @Test
+    public void addAndRemove_copyOnWrite() {
+        ListenerArray<Runnable> a = new ListenerArray<>(new Runnable[0]);
+        Runnable r1 = () -> {
+        }, r2 = () -> {
+        };
+        a.add(r1);
+        a.add(r2);
+        a.add(r1);
+        Runnable[] snapshot = a.array();
+        assertEquals(3, snapshot.length);
+
+        assertTrue(a.remove(r1));
+        assertFalse(a.remove(r1));
+        assertArrayEquals(new Runnable[]{r2}, a.array());
+        assertEquals(3, snapshot.length);
+        assertSame(r1, snapshot[0]);
+    }
+
+    @Test
+    public void removeDuringDispatch_affectsNextDispatchOnly() {
+        ListenerArray<Runnable> a = new ListenerArray<>(new Runnable[0]);
+        int[] calls = new int[1];
+        Runnable[] self = new Runnable[1];
+        self[0] = () -> {
+            calls[0]++;
+            a.remove(self[0]);
+        };
+        a.add(self[0]);
+        a.add(() -> calls[0]++);
+        for (Runnable r : a.array()) r.run();
+        assertEquals(2, calls[0]);
+        for (Runnable r : a.array()) r.run();
+        assertEquals(3, calls[0]);
+    }
+}
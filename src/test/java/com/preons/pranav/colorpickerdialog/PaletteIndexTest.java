@@ -0,0 +1,96 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PaletteIndexTest {
+
+    @Test
+    public void oklab_roundTrips() {
+        float[] lab = new float[3];
+        for (int color : new int[]{0xff000000, 0xffffffff, 0xffff0000, 0xff336699, 0xff0a0b0c}) {
+            ColorSpaces.toOklab(color, lab);
+            assertEquals(Integer.toHexString(color), color, ColorSpaces.fromOklab(lab[0], lab[1], lab[2]));
+        }
+        ColorSpaces.toOklab(0xffffffff, lab);
+        assertEquals(1, lab[0], 1e-3);
+        assertEquals(0, lab[1], 1e-3);
+    }
+
+    @Test
+    public void hsv_roundTrips() {
+        float[] hsv = new float[3];
+        for (int color : new int[]{0xff000000, 0xffffffff, 0xffff0000, 0xff336699, 0xff0a0b0c, 0xff808080}) {
+            ColorSpaces.rgbToHsv(color, hsv);
+            assertEquals(Integer.toHexString(color), color, ColorSpaces.hsvToRgb(hsv[0], hsv[1], hsv[2]));
+        }
+        assertEquals(0xff00ff00, ColorSpaces.hsvToRgb(120, 1, 1));
+        ColorSpaces.rgbToHsv(0xff0000ff, hsv);
+        assertEquals(240, hsv[0], 1e-3);
+    }
+
+    @Test
+    public void distanceSquared_overloadsAgree() {
+        float[] scratch = new float[3], lab = new float[3];
+        ColorSpaces.toOklab(0xff336699, lab);
+        float d = ColorSpaces.distanceSquared(0xff336699, 0xffcc9966);
+        assertEquals(d, ColorSpaces.distanceSquared(0xff336699, 0xffcc9966, scratch), 0);
+        ColorSpaces.toOklab(0xffcc9966, scratch);
+        assertEquals(d, ColorSpaces.distanceSquared(lab, 0, scratch[0], scratch[1], scratch[2]), 1e-6);
+        assertEquals(0, ColorSpaces.distanceSquared(0xff336699, 0xff336699, scratch), 0);
+    }
+
+    @Test
+    public void nearest_matchesLinearScan() {
+        Random random = new Random(7);
+        Palette p = new Palette();
+        for (int i = 0; i < 500; i++) p.add(0xff000000 | random.nextInt(0x1000000));
+        PaletteIndex index = new PaletteIndex(p);
+        int[] dst = new int[4];
+        for (int t = 0; t < 300; t++) {
+            int color = 0xff000000 | random.nextInt(0x1000000);
+            assertEquals(ColorSpaces.distanceSquared(color, p.get(linear(p, color))),
+                    ColorSpaces.distanceSquared(color, p.get(index.nearest(color))), 0);
+            assertEquals(4, index.nearest(color, 4, dst));
+            for (int i = 1; i < 4; i++)
+                assertTrue(ColorSpaces.distanceSquared(color, p.get(dst[i - 1]))
+                        <= ColorSpaces.distanceSquared(color, p.get(dst[i])));
+        }
+    }
+
+    @Test
+    public void followsPaletteChanges() {
+        Palette p = Palette.of(0xffff0000, 0xff00ff00);
+        PaletteIndex index = new PaletteIndex(p);
+        assertEquals(0, index.nearest(0xffee0000));
+        p.set(0, 0xff0000ff);
+        assertEquals(0, index.nearest(0xff0000ee));
+        p.set(1, 0xff0000ee);
+        assertEquals(1, index.nearest(0xff0000ee));
+        p.add(0xffff0000);
+        assertEquals(2, index.nearest(0xffee0000));
+        p.setNull(2);
+        assertEquals(2, index.size());
+        p.compact();
+        assertEquals(2, index.size());
+        p.clear();
+        assertEquals(-1, index.nearest(0xffee0000));
+    }
+
+    private static int linear(Palette p, int color) {
+        int best = -1;
+        float d = Float.MAX_VALUE;
+        float[] scratch = new float[3];
+        for (int i = 0; i < p.size(); i++) {
+            float e = ColorSpaces.distanceSquared(color, p.get(i), scratch);
+            if (e < d) {
+                d = e;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,189 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class PaletteLoaderTest {
+
+    private static PaletteLoader.Result load(byte[] bytes) throws IOException {
+        return PaletteLoader.load(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void gpl() throws IOException {
+        String gpl = "GIMP Palette\nName: Test\nColumns: 2\n# comment\n255   0   0\tRed\n  0 128 255 Blue\r\n\n";
+        PaletteLoader.Result r = load(gpl.getBytes(StandardCharsets.US_ASCII));
+        assertArrayEquals(new int[]{0xffff0000, 0xff0080ff}, r.getColors());
+        assertEquals(0, r.rows());
+    }
+
+    @Test
+    public void hexList() throws IOException {
+        String hex = "// brand\n#ff0000, 00ff00\n#00f #80112233\n";
+        PaletteLoader.Result r = load(hex.getBytes(StandardCharsets.US_ASCII));
+        assertArrayEquals(new int[]{0xffff0000, 0xff00ff00, 0xff0000ff, 0x80112233}, r.getColors());
+    }
+
+    @Test(expected = IOException.class)
+    public void hexList_invalid() throws IOException {
+        load("#ff0000 nope\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void aco() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(1);
+        out.writeShort(3);
+        out.writeShort(0); // RGB
+        out.writeShort(0xffff);
+        out.writeShort(0x8000);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(8); // grayscale, no ink
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(2); // CMYK, 0 is 100% ink
+        out.writeShort(0xffff);
+        out.writeShort(0xffff);
+        out.writeShort(0xffff);
+        out.writeShort(0);
+        PaletteLoader.Result r = load(bytes.toByteArray());
+        assertArrayEquals(new int[]{0xffff8000, 0xffffffff, 0xff000000}, r.getColors());
+    }
+
+    @Test
+    public void ase_groupsBecomeRows() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeBytes("ASEF");
+        out.writeShort(1);
+        out.writeShort(0);
+        out.writeInt(5);
+        aseColor(out, 1, 0, 0);
+        out.writeShort(0xc001);
+        out.writeInt(2 + 4);
+        out.writeShort(2);
+        out.writeChars("g\0");
+        aseColor(out, 0, 1, 0);
+        aseColor(out, 0, 0, 1);
+        out.writeShort(0xc002);
+        out.writeInt(0);
+        PaletteLoader.Result r = load(bytes.toByteArray());
+        assertArrayEquals(new int[]{0xffff0000, 0xff00ff00, 0xff0000ff}, r.getColors());
+        assertEquals(2, r.rows());
+        assertEquals(0, r.rowStart(0));
+        assertEquals(1, r.rowEnd(0));
+        assertEquals(1, r.rowStart(1));
+        assertEquals(3, r.rowEnd(1));
+    }
+
+    @Test
+    public void ase_emptyGroupIsNoRow() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeBytes("ASEF");
+        out.writeShort(1);
+        out.writeShort(0);
+        out.writeInt(6);
+        aseGroup(out);
+        out.writeShort(0xc002);
+        out.writeInt(0);
+        aseGroup(out);
+        aseColor(out, 0, 1, 0);
+        out.writeShort(0xc002);
+        out.writeInt(0);
+        aseColor(out, 1, 0, 0);
+        PaletteLoader.Result r = load(bytes.toByteArray());
+        assertArrayEquals(new int[]{0xff00ff00, 0xffff0000}, r.getColors());
+        assertEquals(2, r.rows());
+        assertEquals(1, r.rowEnd(0));
+        assertEquals(2, r.rowEnd(1));
+        // only empty groups, the palette is flat
+        bytes.reset();
+        out.writeBytes("ASEF");
+        out.writeShort(1);
+        out.writeShort(0);
+        out.writeInt(1);
+        aseGroup(out);
+        assertEquals(0, load(bytes.toByteArray()).rows());
+    }
+
+    private static void aseGroup(DataOutputStream out) throws IOException {
+        out.writeShort(0xc001);
+        out.writeInt(2 + 4);
+        out.writeShort(2);
+        out.writeChars("g\0");
+    }
+
+    private static void aseColor(DataOutputStream out, float r, float g, float b) throws IOException {
+        out.writeShort(1);
+        out.writeInt(2 + 4 + 4 + 12 + 2);
+        out.writeShort(2);
+        out.writeChars("c\0");
+        out.writeBytes("RGB ");
+        out.writeFloat(r);
+        out.writeFloat(g);
+        out.writeFloat(b);
+        out.writeShort(2);
+    }
+
+    @Test
+    public void binary_roundTripAndMap() throws IOException {
+        int[] colors = new int[5000];
+        for (int i = 0; i < colors.length; i++) colors[i] = 0xff000000 | i * 997;
+        PaletteLoader.Result palette = PaletteLoader.Result.of(colors, new int[]{0, 10, 4000, 5000});
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PaletteLoader.write(palette, bytes);
+        PaletteLoader.Result read = load(bytes.toByteArray());
+        assertArrayEquals(colors, read.getColors());
+        assertEquals(3, read.rows());
+        assertEquals(4000, read.rowEnd(1));
+
+        File file = File.createTempFile("palette", ".cpal");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                PaletteLoader.write(palette, out);
+            }
+            PaletteLoader.Result mapped = PaletteLoader.map(file);
+            assertArrayEquals(colors, mapped.getColors());
+            assertEquals(10, mapped.rowStart(1));
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    @Test
+    public void binary_rejectsCorruptedHeaders() throws IOException {
+        // a huge count in a truncated file, a row without colors, offsets not ending at count
+        // and more rows than colors
+        int[][] headers = {{Integer.MAX_VALUE, 0}, {2, 2, 0, 2, 2}, {2, 1, 0, 1}, {1, 2, 0, 1, 1}};
+        int[] lengths = {0, 2, 2, 1};
+        for (int i = 0; i < headers.length; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0x4350414c);
+            out.writeInt(1);
+            for (int v : headers[i]) out.writeInt(v);
+            for (int k = 0; k < lengths[i]; k++) out.writeInt(0xff000000);
+            try {
+                load(bytes.toByteArray());
+                fail("header " + i);
+            } catch (IOException expected) {
+            }
+        }
+    }
+}
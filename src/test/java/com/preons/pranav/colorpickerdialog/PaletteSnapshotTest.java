@@ -0,0 +1,76 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PaletteSnapshotTest {
+
+    @Test
+    public void snapshot_isSharedUntilChanged() {
+        Palette p = Palette.of(1, 2, 3);
+        PaletteSnapshot s = p.snapshot();
+        assertSame(s, p.snapshot());
+        assertEquals(s.version(), p.version());
+
+        Palette a = new Palette(), b = new Palette();
+        a.setAll(s);
+        b.setAll(s);
+        assertEquals(s.version(), a.version());
+        assertEquals(s.version(), b.version());
+
+        a.set(0, 9);
+        a.add(4);
+        p.setNull(1);
+        assertEquals(Palette.of(9, 2, 3, 4), a);
+        assertEquals(Palette.of(1, 2, 3), b);
+        assertEquals(1, s.get(0));
+        assertFalse(s.isNull(1));
+        assertEquals(3, s.size());
+        assertNotEquals(s.version(), a.version());
+        assertNotEquals(s.version(), p.version());
+        assertSame(s, b.snapshot());
+    }
+
+    @Test
+    public void version_changesOnlyWithTheColors() {
+        Palette p = Palette.of(1, 2);
+        long v = p.version();
+        assertFalse(p.set(0, 1));
+        assertEquals(v, p.version());
+        assertTrue(p.set(0, 5));
+        assertNotEquals(v, p.version());
+        v = p.version();
+        p.clear();
+        assertNotEquals(v, p.version());
+    }
+
+    @Test
+    public void setAll_palette_sharesItsSnapshot() {
+        Palette p = Palette.of(1, 2);
+        PaletteSnapshot s = p.snapshot();
+        Palette q = new Palette();
+        q.setAll(p);
+        assertSame(s, q.snapshot());
+        assertTrue(q.isStructureChanged());
+        q.clear();
+        assertEquals(2, p.size());
+        assertEquals(Palette.of(1, 2), p);
+    }
+
+    @Test
+    public void derivations_areNewSnapshots() {
+        PaletteSnapshot s = PaletteSnapshot.of(1, 2);
+        assertSame(s, s.with(0, 1));
+        PaletteSnapshot t = s.with(0, 7).plus(8);
+        PaletteSnapshot u = t.withNull(1);
+        assertEquals(PaletteSnapshot.of(1, 2), s);
+        assertEquals(PaletteSnapshot.of(7, 2, 8), t);
+        assertEquals(1, u.nullCount());
+        assertEquals(2, u.colorCount());
+        int[] dst = new int[3];
+        assertEquals(2, u.toArray(dst));
+        assertArrayEquals(new int[]{7, 8, 0}, dst);
+        assertNotEquals(s.version(), t.version());
+    }
+}
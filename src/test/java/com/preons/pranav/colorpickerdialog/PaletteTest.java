@@ -0,0 +1,81 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PaletteTest {
+
+    @Test
+    public void add_growsAndKeepsOrder() {
+        Palette p = new Palette(1);
+        for (int i = 0; i < 1000; i++) p.add(i);
+        assertEquals(1000, p.size());
+        for (int i = 0; i < 1000; i++) assertEquals(i, p.get(i));
+    }
+
+    @Test
+    public void nullSlots_areTrackedAndCompacted() {
+        Palette p = Palette.of(1, 2, 3);
+        p.addNull();
+        p.add(5);
+        assertTrue(p.setNull(1));
+        assertFalse(p.setNull(1));
+        assertEquals(2, p.nullCount());
+        assertArrayEquals(new Integer[]{1, null, 3, null, 5}, p.toBoxedArray());
+
+        int[] dst = new int[8];
+        assertEquals(3, p.toArray(dst));
+        assertEquals(5, dst[2]);
+
+        p.compact();
+        assertEquals(3, p.size());
+        assertEquals(0, p.nullCount());
+        assertEquals(Palette.of(1, 3, 5), p);
+    }
+
+    @Test
+    public void set_reportsChange() {
+        Palette p = Palette.of(7);
+        assertFalse(p.set(0, 7));
+        assertTrue(p.set(0, 8));
+        p.setNull(0);
+        assertTrue(p.set(0, 8));
+        assertFalse(p.isNull(0));
+    }
+
+    @Test
+    public void setAll_withOffset() {
+        Palette p = Palette.of(9, 9);
+        p.setAll(new int[]{1, 2, 3, 4}, 1, 2);
+        assertEquals(Palette.of(2, 3), p);
+    }
+
+    @Test
+    public void dirty_tracksSingleSlots() {
+        Palette p = Palette.of(1, 2, 3, 4);
+        assertTrue(p.isStructureChanged());
+        p.clearDirty();
+        assertFalse(p.isDirty());
+
+        p.set(2, 9);
+        p.set(0, 1);
+        p.setNull(3);
+        assertFalse(p.isStructureChanged());
+        assertEquals(2, p.dirtyCount());
+        assertEquals(2, p.nextDirty(0));
+        assertEquals(3, p.nextDirty(3));
+        assertEquals(-1, p.nextDirty(4));
+
+        p.add(5);
+        assertTrue(p.isStructureChanged());
+        assertEquals(5, p.dirtyCount());
+        p.clearDirty();
+        assertEquals(-1, p.nextDirty(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void get_outOfRange() {
+        Palette.of(1).get(1);
+    }
+}
@@ -0,0 +1,156 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class RecentColorsTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static int[] recent(RecentColors r) {
+        int[] dst = new int[r.recentCount()];
+        r.getRecent(dst);
+        return dst;
+    }
+
+    private static int[] favorites(RecentColors r) {
+        int[] dst = new int[r.favoriteCount()];
+        r.getFavorites(dst);
+        return dst;
+    }
+
+    @Test
+    public void record_mostRecentFirstAndEvictsLeastRecent() {
+        RecentColors r = new RecentColors(3);
+        r.record(1);
+        r.record(2);
+        r.record(3);
+        r.record(1);
+        assertArrayEquals(new int[]{1, 3, 2}, recent(r));
+        r.record(4);
+        assertArrayEquals(new int[]{4, 1, 3}, recent(r));
+    }
+
+    @Test
+    public void favorites_areKeptApartAndNeverEvicted() {
+        RecentColors r = new RecentColors(2);
+        r.record(1);
+        r.record(2);
+        assertTrue(r.setFavorite(1, true));
+        assertArrayEquals(new int[]{2}, recent(r));
+        r.record(3);
+        r.record(4);
+        r.record(1);
+        assertArrayEquals(new int[]{4, 3}, recent(r));
+        assertArrayEquals(new int[]{1}, favorites(r));
+        assertTrue(r.setFavorite(5, true));
+        assertFalse(r.setFavorite(6, true));
+        assertTrue(r.setFavorite(1, false));
+        assertArrayEquals(new int[]{1, 4}, recent(r));
+        assertArrayEquals(new int[]{5}, favorites(r));
+        r.remove(5);
+        r.remove(4);
+        assertEquals(0, r.favoriteCount());
+        assertArrayEquals(new int[]{1}, recent(r));
+    }
+
+    @Test
+    public void load_replaysTheLog() throws IOException {
+        File file = new File(folder.getRoot(), "recents");
+        RecentColors r = new RecentColors(4, file, DIRECT).load();
+        r.record(0xff112233);
+        r.record(0xff445566);
+        r.setFavorite(0xff778899, true);
+        r.record(0xff112233);
+        r.remove(0xff445566);
+        r.record(0xffaabbcc);
+
+        RecentColors loaded = new RecentColors(4, file, DIRECT).load();
+        assertArrayEquals(recent(r), recent(loaded));
+        assertArrayEquals(favorites(r), favorites(loaded));
+        r.clear();
+        assertEquals(0, new RecentColors(4, file, DIRECT).load().recentCount());
+    }
+
+    @Test
+    public void log_isCompacted() throws IOException {
+        File file = new File(folder.getRoot(), "recents");
+        RecentColors r = new RecentColors(2, file, DIRECT).load();
+        r.setFavorite(7, true);
+        for (int i = 0; i < 1000; i++) r.record(i);
+        assertTrue(file.length() < 200);
+        RecentColors loaded = new RecentColors(2, file, DIRECT).load();
+        assertArrayEquals(new int[]{999, 998}, recent(loaded));
+        assertArrayEquals(new int[]{7}, favorites(loaded));
+    }
+
+    @Test
+    public void load_ignoresTruncatedRecordAndForeignFiles() throws IOException {
+        File file = new File(folder.getRoot(), "recents");
+        RecentColors r = new RecentColors(4, file, DIRECT).load();
+        r.record(1);
+        r.record(2);
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{'P', 0, 0});
+        }
+        RecentColors loaded = new RecentColors(4, file, DIRECT).load();
+        assertArrayEquals(new int[]{2, 1}, recent(loaded));
+        // the truncated record was dropped by rewriting the file
+        loaded.record(3);
+        assertArrayEquals(new int[]{3, 2, 1}, recent(new RecentColors(4, file, DIRECT).load()));
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("not a log".getBytes());
+        }
+        assertEquals(0, new RecentColors(4, file, DIRECT).load().recentCount());
+    }
+
+    @Test(timeout = 5000)
+    public void write_isScheduledWithNoLockHeld() throws IOException {
+        // runs the write on another thread and waits for it, as a caller-runs executor would
+        Executor waiting = r -> {
+            Thread t = new Thread(r);
+            t.start();
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        };
+        File file = new File(folder.getRoot(), "recents");
+        RecentColors r = new RecentColors(4, file, waiting).load();
+        r.record(1);
+        r.setFavorite(2, true);
+        r.remove(1);
+        assertArrayEquals(new int[]{2}, favorites(new RecentColors(4, file, DIRECT).load()));
+    }
+
+    @Test
+    public void failedWrite_isRetriedThenCompacted() throws IOException {
+        File dir = new File(folder.getRoot(), "missing");
+        File file = new File(dir, "recents");
+        int[] writes = {0};
+        Executor counting = task -> {
+            writes[0]++;
+            task.run();
+        };
+        RecentColors r = new RecentColors(4, file, counting).load();
+        r.record(1);
+        // the first write and its retries, then nothing until the next change
+        assertEquals(4, writes[0]);
+        assertTrue(dir.mkdir());
+        r.record(2);
+        assertArrayEquals(new int[]{2, 1}, recent(new RecentColors(4, file, DIRECT).load()));
+    }
+}
@@ -0,0 +1,43 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SecondaryPaletteTest {
+
+    @Test
+    public void rows_areStoredFlat() {
+        SecondaryPalette s = new SecondaryPalette();
+        for (int r = 0; r < 20; r++) s.addRow(new int[]{r, r + 100, r + 200}, 0, 1 + r % 3);
+        s.addRow(new Integer[]{null, 7, null, 8});
+        assertEquals(21, s.rows());
+        assertEquals(3, s.rowSize(2));
+        assertEquals(7, s.primary(20));
+        assertEquals(2, s.rowSize(20));
+
+        Palette row = new Palette();
+        s.copyRow(5, row);
+        assertEquals(Palette.of(5, 105, 205), row);
+
+        Palette primaries = new Palette();
+        s.copyPrimaries(primaries);
+        assertEquals(21, primaries.size());
+        assertEquals(19, primaries.get(19));
+    }
+
+    @Test
+    public void setAll_replacesRows() {
+        SecondaryPalette s = new SecondaryPalette();
+        s.addRow(new int[]{1}, 0, 1);
+        s.setAll(new int[]{1, 2, 3, 4, 5}, new int[]{0, 2, 5}, 2);
+        assertEquals(2, s.rows());
+        assertEquals(5, s.size());
+        assertEquals(3, s.primary(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setAll_rejectsEmptyRow() {
+        new SecondaryPalette().setAll(new int[]{1, 2}, new int[]{0, 2, 2}, 2);
+    }
+}
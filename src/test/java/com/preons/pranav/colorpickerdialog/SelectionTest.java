@@ -0,0 +1,75 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SelectionTest {
+
+    @Test
+    public void toggle_tracksCount() {
+        Selection s = new Selection(130);
+        assertTrue(s.toggle(3));
+        assertTrue(s.toggle(129));
+        assertFalse(s.toggle(3));
+        assertEquals(1, s.count());
+        assertTrue(s.isSelected(129));
+    }
+
+    @Test
+    public void ranges_acrossWords() {
+        Selection s = new Selection(200);
+        s.setRange(60, 130, true);
+        assertEquals(70, s.count());
+        assertEquals(60, s.nextSelected(0));
+        assertEquals(-1, s.nextSelected(130));
+        s.setRange(64, 128, false);
+        assertEquals(6, s.count());
+        int[] dst = new int[10];
+        assertEquals(6, s.getIndices(dst));
+        assertArrayEquals(new int[]{60, 61, 62, 63, 128, 129}, java.util.Arrays.copyOf(dst, 6));
+    }
+
+    @Test
+    public void invertAndSelectAll_stayInSize() {
+        Selection s = new Selection(70);
+        s.set(5, true);
+        s.invert();
+        assertEquals(69, s.count());
+        assertFalse(s.isSelected(5));
+        assertEquals(-1, s.nextSelected(70));
+        s.selectAll();
+        assertEquals(70, s.count());
+        s.resize(10);
+        assertEquals(10, s.count());
+        s.resize(70);
+        assertEquals(10, s.count());
+    }
+
+    @Test
+    public void getColors_readsPalette() {
+        Palette p = Palette.of(0xff000001, 0xff000002, 0xff000001);
+        Selection s = new Selection(3);
+        s.set(0, true);
+        s.set(2, true);
+        int[] dst = new int[3];
+        assertEquals(2, s.getColors(p, dst));
+        assertEquals(0xff000001, dst[1]);
+    }
+
+    @Test
+    public void sizedToPalette_countMatchesColors() {
+        // a grid of 20 swatches padding 5 colors, the selection only covers the colors
+        Palette p = Palette.of(1, 2, 3, 4, 5);
+        Selection s = new Selection(20);
+        s.selectAll();
+        s.resize(p.size());
+        assertEquals(5, s.count());
+        s.invert();
+        assertEquals(0, s.count());
+        s.setRange(0, 5, true);
+        int[] dst = new int[20];
+        assertEquals(s.count(), s.getColors(p, dst));
+        assertEquals(s.count(), s.getIndices(dst));
+    }
+}
@@ -0,0 +1,52 @@
+package com.preons.pranav.colorpickerdialog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ShadeGeneratorTest {
+
+    @Test
+    public void row_tintsShadesAndTones() {
+        ShadeGenerator g = new ShadeGenerator(3, 3, 2);
+        assertEquals(9, g.rowSize());
+        int primary = 0xff3366cc;
+        int[] row = new int[g.rowSize()];
+        assertEquals(9, g.row(primary, row, 0));
+        assertEquals(primary, row[0]);
+
+        float[] lab = new float[3], prev = new float[3];
+        ColorSpaces.toOklab(primary, prev);
+        for (int i = 1; i <= 3; i++) {
+            ColorSpaces.toOklab(row[i], lab);
+            assertTrue("tint " + i, lab[0] > prev[0]);
+            System.arraycopy(lab, 0, prev, 0, 3);
+        }
+        ColorSpaces.toOklab(primary, prev);
+        for (int i = 4; i <= 6; i++) {
+            ColorSpaces.toOklab(row[i], lab);
+            assertTrue("shade " + i, lab[0] < prev[0]);
+            System.arraycopy(lab, 0, prev, 0, 3);
+        }
+        ColorSpaces.toOklch(primary, prev);
+        for (int i = 7; i <= 8; i++) {
+            ColorSpaces.toOklch(row[i], lab);
+            assertTrue("tone " + i, lab[1] < prev[1]);
+            assertEquals(prev[0], lab[0], 0.01);
+            prev[1] = lab[1];
+        }
+    }
+
+    @Test
+    public void row_isCachedAndKeepsAlpha() {
+        ShadeGenerator g = new ShadeGenerator(2, 0, 0, 1);
+        Palette p = new Palette();
+        g.row(0x80ff0000, p);
+        assertEquals(3, p.size());
+        assertEquals(0x80, p.get(1) >>> 24);
+        int[] row = new int[3];
+        g.row(0xff00ff00, row, 0);
+        g.row(0x80ff0000, row, 0);
+        assertEquals(p.get(2), row[2]);
+    }
+}